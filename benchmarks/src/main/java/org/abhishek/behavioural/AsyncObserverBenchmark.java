@@ -0,0 +1,93 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Publishing to a slow subscriber synchronously against through an AsyncObserver.
+
+Throughput and the sampled latency of notify() as seen by the publishing threads. The subscriber burns
+~subscriberWork tokens of CPU per message. With DROP_OLDEST the async lane never blocks the publisher,
+the number of dropped messages shows how far behind the subscriber fell.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(2)
+@State(Scope.Benchmark)
+public class AsyncObserverBenchmark {
+
+    static class SlowObserver implements Observer {
+        private final long work;
+
+        SlowObserver(long work) {
+            this.work = work;
+        }
+
+        @Override
+        public void update(Message message) {
+            Blackhole.consumeCPU(work);
+        }
+    }
+
+    @Param({"0", "100"})
+    private long subscriberWork;
+
+    @Param({"BUSY_SPIN", "PARK"})
+    private String waitStrategy;
+
+    @Param({"BLOCK", "DROP_OLDEST"})
+    private String backpressure;
+
+    private MessagePublisher sync;
+    private MessagePublisher async;
+    private AsyncObserver asyncObserver;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sync = new MessagePublisher();
+        sync.attach(new SlowObserver(subscriberWork));
+
+        async = new MessagePublisher();
+        asyncObserver = async.attachAsync(new SlowObserver(subscriberWork), 4096,
+                WaitStrategy.valueOf(waitStrategy), BackpressurePolicy.valueOf(backpressure));
+
+        message = new Message("benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        async.detach(asyncObserver);
+        asyncObserver.close();
+        System.out.println("delivered " + asyncObserver.getDeliveredCount()
+                + ", dropped " + asyncObserver.getDroppedCount());
+    }
+
+    @Benchmark
+    public void synchronous() {
+        sync.notify(message);
+    }
+
+    @Benchmark
+    public void asynchronous() {
+        async.notify(message);
+    }
+}
@@ -0,0 +1,92 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Publishing 10k messages one notify() at a time against a single notify(Message[]).
+
+plain observers use the default update(List), io observers pay a fixed "flush" cost per update call and
+override update(List) to flush once per batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchNotifyBenchmark {
+
+    private static final int MESSAGES = 10_000;
+    private static final long PER_MESSAGE_WORK = 5;
+    private static final long FLUSH_WORK = 50;
+
+    static class PlainObserver implements Observer {
+        @Override
+        public void update(Message message) {
+            Blackhole.consumeCPU(PER_MESSAGE_WORK);
+        }
+    }
+
+    static class IoObserver implements Observer {
+        @Override
+        public void update(Message message) {
+            Blackhole.consumeCPU(PER_MESSAGE_WORK);
+            Blackhole.consumeCPU(FLUSH_WORK);
+        }
+
+        @Override
+        public void update(List<Message> messages) {
+            for (int i = 0; i < messages.size(); i++) {
+                Blackhole.consumeCPU(PER_MESSAGE_WORK);
+            }
+            Blackhole.consumeCPU(FLUSH_WORK);
+        }
+    }
+
+    @Param({"1", "10"})
+    private int observerCount;
+
+    @Param({"plain", "io"})
+    private String observerKind;
+
+    private MessagePublisher publisher;
+    private Message[] messages;
+
+    @Setup
+    public void setUp() {
+        publisher = new MessagePublisher();
+        for (int i = 0; i < observerCount; i++) {
+            publisher.attach(observerKind.equals("io") ? new IoObserver() : new PlainObserver());
+        }
+        messages = new Message[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            messages[i] = new Message("message " + i);
+        }
+    }
+
+    @Benchmark
+    public void perMessage() {
+        for (Message message : messages) {
+            publisher.notify(message);
+        }
+    }
+
+    @Benchmark
+    public void batch() {
+        publisher.notify(messages);
+    }
+}
@@ -0,0 +1,108 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+1M mixed-level requests through the full support chain, scores are requests per second.
+
+loop hands them to SupportService one at a time; the batch variants give the whole array to
+BatchSupportService, on the calling thread, on virtual threads and on a pool of 4 threads. Every variant
+counts completions in a callback.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchSupportBenchmark {
+
+    private static final int REQUESTS = 1_000_000;
+
+    private ServiceRequest[] requests;
+    private SupportService supportService;
+    private BatchSupportService inline;
+    private BatchSupportService virtualThreads;
+    private BatchSupportService pool;
+    private ExecutorService virtualExecutor;
+    private ExecutorService poolExecutor;
+    private final LongAdder completed = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FrontDeskSupport frontDesk = new FrontDeskSupport();
+        SuperVisorSupport supervisor = new SuperVisorSupport();
+        ManagerSupport manager = new ManagerSupport();
+        DirectorSupport director = new DirectorSupport();
+        frontDesk.setNext(supervisor);
+        supervisor.setNext(manager);
+        manager.setNext(director);
+
+        supportService = new SupportService();
+        supportService.setHandler(frontDesk);
+        virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        poolExecutor = Executors.newFixedThreadPool(4);
+        inline = new BatchSupportService(frontDesk);
+        virtualThreads = new BatchSupportService(frontDesk, virtualExecutor);
+        pool = new BatchSupportService(frontDesk, poolExecutor);
+
+        Random random = new Random(42);
+        ServiceLevel[] levels = ServiceLevel.values();
+        requests = new ServiceRequest[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            requests[i] = new ServiceRequest();
+            requests[i].setType(levels[random.nextInt(levels.length)]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        virtualExecutor.shutdown();
+        poolExecutor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void loop() {
+        for (ServiceRequest request : requests) {
+            supportService.handleRequest(request);
+            completed.increment();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public Outcome[] batchInline() {
+        return inline.handleAll(requests, (request, outcome) -> completed.increment()).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public Outcome[] batchVirtualThreads() {
+        return virtualThreads.handleAll(requests, (request, outcome) -> completed.increment()).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public Outcome[] batchPool() {
+        return pool.handleAll(requests, (request, outcome) -> completed.increment()).join();
+    }
+}
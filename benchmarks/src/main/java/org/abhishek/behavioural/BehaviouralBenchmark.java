@@ -0,0 +1,95 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Observer fan-out against the number of attached observers and chain of responsibility walks against the chain depth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BehaviouralBenchmark {
+
+    @State(Scope.Thread)
+    public static class ObserverState {
+        @Param({"1", "10", "100", "1000"})
+        int observerCount;
+
+        Subject publisher;
+        Message message;
+
+        @Setup
+        public void setUp() {
+            publisher = new MessagePublisher();
+            for (int i = 0; i < observerCount; i++) {
+                publisher.attach(new CountingObserver());
+            }
+            message = new Message("benchmark");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ChainState {
+        @Param({"4", "16", "64"})
+        int chainDepth;
+
+        SupportService supportService;
+
+        @Setup
+        public void setUp() {
+            //chainDepth - 1 supervisors in front of the director, so a LEVEL_FOUR request walks the whole chain
+            SupportServiceItf head = new DirectorSupport();
+            for (int i = 1; i < chainDepth; i++) {
+                SuperVisorSupport supervisor = new SuperVisorSupport();
+                supervisor.setNext(head);
+                head = supervisor;
+            }
+            supportService = new SupportService();
+            supportService.setHandler(head);
+        }
+    }
+
+    @Benchmark
+    public void observerNotify(ObserverState state) {
+        state.publisher.notify(state.message);
+    }
+
+    @Benchmark
+    public String chainHandledAtHead(ChainState state) {
+        ServiceRequest request = new ServiceRequest();
+        request.setType(ServiceLevel.LEVEL_TWO);
+        state.supportService.handleRequest(request);
+        return request.getConclusion();
+    }
+
+    @Benchmark
+    public String chainHandledAtTail(ChainState state) {
+        ServiceRequest request = new ServiceRequest();
+        request.setType(ServiceLevel.LEVEL_FOUR);
+        state.supportService.handleRequest(request);
+        return request.getConclusion();
+    }
+
+    static class CountingObserver implements Observer {
+        int received;
+
+        @Override
+        public void update(Message message) {
+            received++;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.abhishek.behavioural;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Stress check for swapping SupportChain snapshots under load.
+
+Worker threads send requests of every level through one SupportService while two reconfiguring threads keep
+flipping the chain between two configurations with SupportService.updateChain: A is front desk, supervisor,
+manager, director; B has a predicate handler instead of the front desk and another director. Every request
+must come back with the outcome and conclusion of either A or B; an exception or anything else fails:
+    java -cp target/benchmarks.jar org.abhishek.behavioural.ChainReconfigurationStress [seconds] [workers]
+ */
+public class ChainReconfigurationStress {
+
+    private static final ServiceLevel[] LEVELS = ServiceLevel.values();
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        FrontDeskSupport frontDesk = new FrontDeskSupport();
+        PredicateSupport levelOne = new PredicateSupport(request -> request.getType() == ServiceLevel.LEVEL_ONE,
+                "Level one solved by predicate");
+        DirectorSupport directorA = new DirectorSupport();
+        DirectorSupport directorB = new DirectorSupport();
+        SupportChain a = SupportChain.of(frontDesk, new SuperVisorSupport(), new ManagerSupport(), directorA);
+        SupportChain b = a.replace(frontDesk, levelOne).replace(directorA, directorB);
+
+        //what each level gets under A and under B
+        Outcome[] outcomesA = new Outcome[LEVELS.length];
+        Outcome[] outcomesB = new Outcome[LEVELS.length];
+        String[] conclusionsA = new String[LEVELS.length];
+        String[] conclusionsB = new String[LEVELS.length];
+        for (ServiceLevel level : LEVELS) {
+            ServiceRequest request = newRequest(level);
+            outcomesA[level.ordinal()] = a.handleRequest(request);
+            conclusionsA[level.ordinal()] = request.getConclusion();
+            request = newRequest(level);
+            outcomesB[level.ordinal()] = b.handleRequest(request);
+            conclusionsB[level.ordinal()] = request.getConclusion();
+        }
+
+        SupportService supportService = new SupportService();
+        supportService.setHandler(a);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        LongAdder requests = new LongAdder();
+        LongAdder swaps = new LongAdder();
+
+        Thread[] threads = new Thread[workers + 2];
+        for (int t = 0; t < workers; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    ServiceLevel level = LEVELS[random.nextInt(LEVELS.length)];
+                    ServiceRequest request = newRequest(level);
+                    try {
+                        Outcome outcome = supportService.handleRequest(request);
+                        int i = level.ordinal();
+                        String conclusion = request.getConclusion();
+                        boolean asA = outcome == outcomesA[i] && Objects.equals(conclusion, conclusionsA[i]);
+                        boolean asB = outcome == outcomesB[i] && Objects.equals(conclusion, conclusionsB[i]);
+                        if (!asA && !asB) {
+                            failure.compareAndSet(null, level + " :: " + outcome + " :: " + request.getConclusion());
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, level + " :: " + e);
+                    }
+                    requests.increment();
+                }
+            }, "worker-" + t);
+        }
+        for (int t = workers; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                while (running.get()) {
+                    //a new snapshot every time, built from whatever is current
+                    supportService.updateChain(chain -> chain.getHandlers().get(0) == frontDesk
+                            ? chain.replace(frontDesk, levelOne).replace(directorA, directorB)
+                            : chain.replace(levelOne, frontDesk).replace(directorB, directorA));
+                    swaps.increment();
+                }
+            }, "reconfigure-" + t);
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("%d workers, %d s : %d requests (%d/s), %d chain swaps%n", workers, seconds,
+                requests.sum(), requests.sum() / seconds, swaps.sum());
+        if (failure.get() != null) {
+            throw new AssertionError("Request saw neither configuration :: " + failure.get());
+        }
+    }
+
+    private static ServiceRequest newRequest(ServiceLevel level) {
+        ServiceRequest request = new ServiceRequest();
+        request.setType(level);
+        return request;
+    }
+}
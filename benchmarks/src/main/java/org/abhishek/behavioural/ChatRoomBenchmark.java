@@ -0,0 +1,154 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+Multi-threaded sendMessage to random recipients in a room with millions of users; 1 in 16 sends goes to an
+unknown id. Sample time mode reports the p50/p99 latencies. ChatRoom is compared with the same room backed by
+a ConcurrentHashMap.
+
+main() prints the retained heap of the two registries:
+    java -cp target/benchmarks.jar org.abhishek.behavioural.ChatRoomBenchmark [users]
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class ChatRoomBenchmark {
+
+    static class SilentUser extends User {
+        int received;
+
+        SilentUser(IChatRoom room, String id) {
+            super(room, id, id);
+        }
+
+        @Override
+        public void send(String msg, String userId) {
+            getMediator().sendMessage(msg, userId);
+        }
+
+        @Override
+        public void receive(String msg) {
+            received++;
+        }
+    }
+
+    static class ConcurrentHashMapChatRoom implements IChatRoom {
+        private final ConcurrentHashMap<String, User> usersMap = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean sendMessage(String msg, String userId) {
+            User u = usersMap.get(userId);
+            if (u == null) {
+                return false;
+            }
+            u.receive(msg);
+            return true;
+        }
+
+        @Override
+        public void addUser(User user) {
+            usersMap.put(user.getId(), user);
+        }
+
+        @Override
+        public boolean removeUser(String userId) {
+            return usersMap.remove(userId) != null;
+        }
+    }
+
+    @Param({"1000000"})
+    private int users;
+
+    private String[] ids;
+    private ChatRoom sharded;
+    private IChatRoom concurrentHashMap;
+
+    @Setup
+    public void setUp() {
+        ids = new String[users];
+        sharded = new ChatRoom();
+        concurrentHashMap = new ConcurrentHashMapChatRoom();
+        for (int i = 0; i < users; i++) {
+            ids[i] = "user-" + i;
+            sharded.addUser(new SilentUser(sharded, ids[i]));
+            concurrentHashMap.addUser(new SilentUser(concurrentHashMap, ids[i]));
+        }
+    }
+
+    private String recipient() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return (random.nextInt() & 15) == 0 ? "unknown" : ids[random.nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public boolean sharded() {
+        return sharded.sendMessage("hello", recipient());
+    }
+
+    @Benchmark
+    public boolean concurrentHashMap() {
+        return concurrentHashMap.sendMessage("hello", recipient());
+    }
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] ids = new String[users];
+        SilentUser[] members = new SilentUser[users];
+        for (int i = 0; i < users; i++) {
+            ids[i] = "user-" + i;
+            members[i] = new SilentUser(null, ids[i]);
+        }
+
+        //ids and users are shared by both and part of the baseline, only the registries are measured
+        long baseline = usedHeap();
+        UserRegistry registry = new UserRegistry();
+        for (SilentUser member : members) {
+            registry.put(member);
+        }
+        long registryHeap = usedHeap() - baseline;
+        Reference.reachabilityFence(registry);
+        registry = null;
+
+        baseline = usedHeap();
+        ConcurrentHashMap<String, User> map = new ConcurrentHashMap<>();
+        for (SilentUser member : members) {
+            map.put(member.getId(), member);
+        }
+        long mapHeap = usedHeap() - baseline;
+        Reference.reachabilityFence(map);
+        Reference.reachabilityFence(members);
+
+        System.out.println(users + " users");
+        System.out.println("UserRegistry      : " + registryHeap / 1024 + " KB");
+        System.out.println("ConcurrentHashMap : " + mapHeap / 1024 + " KB");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
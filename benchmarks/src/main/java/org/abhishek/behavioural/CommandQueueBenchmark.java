@@ -0,0 +1,125 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Bursts of random on/off switch commands over 16 receivers, one burst per operation.
+
+direct runs every command through HomeAutomationRemote as it comes; queued hands the burst to a
+QueuedHomeAutomationRemote and flushes it as one batch. deviceWork is the CPU a receiver spends per switch,
+standing in for talking to the device. The coalescing ratio and the average batch size are printed after the
+trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandQueueBenchmark {
+
+    private static final int RECEIVERS = 16;
+    private static final int BURSTS = 64;
+
+    @Param({"16", "256"})
+    public int burst;
+
+    @Param({"0", "500"})
+    public int deviceWork;
+
+    //silent stand-in for Light and Fan: the real commands print
+    static final class Switch implements SwitchCommand {
+        private final Object receiver;
+        private final boolean on;
+        private final int work;
+
+        Switch(Object receiver, boolean on, int work) {
+            this.receiver = receiver;
+            this.on = on;
+            this.work = work;
+        }
+
+        @Override
+        public void execute() {
+            Blackhole.consumeCPU(work);
+        }
+
+        @Override
+        public Object getReceiver() {
+            return receiver;
+        }
+
+        @Override
+        public boolean switchesOn() {
+            return on;
+        }
+    }
+
+    private ICommand[][] bursts;
+    private int next;
+    private HomeAutomationRemote remote;
+    private QueuedHomeAutomationRemote queued;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Object[] receivers = new Object[RECEIVERS];
+        for (int i = 0; i < RECEIVERS; i++) {
+            receivers[i] = new Object();
+        }
+        Random random = new Random(42);
+        bursts = new ICommand[BURSTS][burst];
+        for (ICommand[] commands : bursts) {
+            for (int i = 0; i < burst; i++) {
+                commands[i] = new Switch(receivers[random.nextInt(RECEIVERS)], random.nextBoolean(), deviceWork);
+            }
+        }
+        remote = new HomeAutomationRemote();
+        queued = new QueuedHomeAutomationRemote();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (queued.getBatchCount() > 0) {
+            System.out.printf("%ncoalescing ratio %.3f, %.1f commands executed per batch of %d%n",
+                    queued.getCoalescingRatio(), (double) queued.getExecutedCount() / queued.getBatchCount(), burst);
+        }
+    }
+
+    @Benchmark
+    public void direct() {
+        for (ICommand command : nextBurst()) {
+            remote.setCommand(command);
+            remote.buttonPressed();
+        }
+    }
+
+    @Benchmark
+    public int queued() {
+        for (ICommand command : nextBurst()) {
+            queued.buttonPressed(command);
+        }
+        return queued.flush();
+    }
+
+    private ICommand[] nextBurst() {
+        ICommand[] commands = bursts[next];
+        next = (next + 1) & (BURSTS - 1);
+        return commands;
+    }
+}
@@ -0,0 +1,102 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Walking the support chain against dispatching through CompiledSupportChain, for chains of up to 100 handlers.
+
+The chain is chainDepth - 1 front desk / supervisor / manager handlers in turn followed by a director, so a
+LEVEL_FOUR request walks all of it. mixed sends the levels in turn, INVALID_REQUEST included. With
+predicate, a PredicateSupport that accepts nothing sits in the middle of the chain: levels behind it fall back
+to walking from there.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompiledChainBenchmark {
+
+    private static final ServiceLevel[] LEVELS = ServiceLevel.values();
+
+    @Param({"4", "16", "64", "100"})
+    public int chainDepth;
+
+    @Param({"false", "true"})
+    public boolean predicate;
+
+    private SupportServiceItf chain;
+    private SupportServiceItf compiled;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SupportServiceItf head = new DirectorSupport();
+        for (int i = 1; i < chainDepth; i++) {
+            SupportServiceItf handler;
+            if (predicate && i == chainDepth / 2) {
+                PredicateSupport predicateSupport = new PredicateSupport(request -> false, "never");
+                predicateSupport.setNext(head);
+                handler = predicateSupport;
+            } else {
+                LevelSupport levelSupport = switch (i % 3) {
+                    case 0 -> new FrontDeskSupport();
+                    case 1 -> new SuperVisorSupport();
+                    default -> new ManagerSupport();
+                };
+                levelSupport.setNext(head);
+                handler = levelSupport;
+            }
+            head = handler;
+        }
+        chain = head;
+        compiled = CompiledSupportChain.compile(head);
+    }
+
+    @Benchmark
+    public String walkTail() {
+        return handle(chain, ServiceLevel.LEVEL_FOUR);
+    }
+
+    @Benchmark
+    public String compiledTail() {
+        return handle(compiled, ServiceLevel.LEVEL_FOUR);
+    }
+
+    @Benchmark
+    public String walkMixed() {
+        return handle(chain, nextLevel());
+    }
+
+    @Benchmark
+    public String compiledMixed() {
+        return handle(compiled, nextLevel());
+    }
+
+    private ServiceLevel nextLevel() {
+        ServiceLevel level = LEVELS[next];
+        next = next + 1 == LEVELS.length ? 0 : next + 1;
+        return level;
+    }
+
+    private static String handle(SupportServiceItf handler, ServiceLevel level) {
+        ServiceRequest request = new ServiceRequest();
+        request.setType(level);
+        handler.handleRequest(request);
+        return request.getConclusion();
+    }
+}
@@ -0,0 +1,112 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Fan-out of one group broadcast to every member.
+
+broadcastReturn is the time the sender is blocked (the call returning); broadcastDelivered waits until every
+member has received the message, so members / score is the fan-out throughput. The distribution of the time
+messages waited in mailboxes is printed after each iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroupBroadcastBenchmark {
+
+    private static final String GROUP = "everyone";
+
+    static class CountingUser extends User {
+        private final LongAdder received;
+
+        CountingUser(IChatRoom room, String id, LongAdder received) {
+            super(room, id, id);
+            this.received = received;
+        }
+
+        @Override
+        public void send(String msg, String userId) {
+            getMediator().sendMessage(msg, userId);
+        }
+
+        @Override
+        public void receive(String msg) {
+            received.increment();
+        }
+
+        @Override
+        public void receiveAll(List<String> msgs) {
+            received.add(msgs.size());
+        }
+    }
+
+    @Param({"1000", "100000"})
+    private int members;
+
+    private ChatRoom room;
+    private LongAdder received;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        room = new ChatRoom();
+        received = new LongAdder();
+        for (int i = 0; i < members; i++) {
+            String id = "user-" + i;
+            room.addUser(new CountingUser(room, id, received));
+            room.joinGroup(GROUP, id);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetHistogram() {
+        room.getQueueingDelay().reset();
+    }
+
+    //previous broadcasts must be delivered so mailboxes don't overflow between operations
+    @Setup(Level.Invocation)
+    public void awaitDelivery() {
+        while (received.sum() + room.getDroppedCount() < expected) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printHistogram() {
+        awaitDelivery();
+        System.out.println("queueing delay " + room.getQueueingDelay() + ", dropped " + room.getDroppedCount());
+    }
+
+    @Benchmark
+    public Object broadcastReturn() {
+        expected += members;
+        return room.broadcast("hello", GROUP);
+    }
+
+    @Benchmark
+    public Integer broadcastDelivered() {
+        expected += members;
+        Integer queued = room.broadcast("hello", GROUP).join();
+        awaitDelivery();
+        return queued;
+    }
+}
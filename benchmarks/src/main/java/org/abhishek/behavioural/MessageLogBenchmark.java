@@ -0,0 +1,111 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+Sequential append to, and replay from, the memory-mapped MessageLog.
+
+append writes one message per operation with segments rolling (and retention deleting old ones) along the way.
+replay reads every message for one of the users recipients from the start of a pre-filled log of MESSAGES
+messages, so the score per operation is the cost of scanning one record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageLogBenchmark {
+
+    private static final int MESSAGES = 100_000;
+    private static final int SEGMENT_BYTES = 4 << 20;
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+        @Param({"64", "1024"})
+        public int messageSize;
+
+        Path directory;
+        MessageLog log;
+        String message;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("message-log-append");
+            //keeps the benchmark from filling the disk
+            log = new MessageLog(directory, SEGMENT_BYTES, 16L * SEGMENT_BYTES, null);
+            message = "x".repeat(messageSize);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            log.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReplayState {
+        @Param({"1", "16"})
+        public int users;
+
+        Path directory;
+        MessageLog log;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("message-log-replay");
+            log = new MessageLog(directory, SEGMENT_BYTES, 0, null);
+            String message = "x".repeat(64);
+            for (int i = 0; i < MESSAGES; i++) {
+                log.append("user-" + (i % users), message);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            log.close();
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    public long append(AppendState state) throws IOException {
+        return state.log.append("user-" + (state.next++ & 15), state.message);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public List<MessageLog.Entry> replay(ReplayState state) {
+        return state.log.read("user-0", state.log.getStartPosition(), Integer.MAX_VALUE);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
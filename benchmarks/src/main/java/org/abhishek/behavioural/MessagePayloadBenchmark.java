@@ -0,0 +1,112 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/*
+Fan-out of one message to observers that each write it to a channel, the way a subscriber forwarding to a
+socket or file would.
+
+reencode is what observers had to do before: getMessage().getBytes() per observer. sharedString publishes a
+plain Message and observers use writeTo, so the message is encoded once per publish. buffer publishes a
+BufferMessage over bytes that were already encoded (read from a channel), nothing is encoded or copied
+before the sink. Run with -prof gc to compare gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessagePayloadBenchmark {
+
+    @Param({"64", "4096"})
+    public int messageSize;
+
+    @Param({"16"})
+    public int observers;
+
+    //stands in for a socket: copies what it is given into its own buffer
+    static final class SinkChannel implements WritableByteChannel {
+        private final ByteBuffer target;
+
+        SinkChannel(int capacity) {
+            target = ByteBuffer.allocateDirect(capacity);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int written = src.remaining();
+            target.clear();
+            target.put(src);
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private MessagePublisher reencodePublisher;
+    private MessagePublisher writeToPublisher;
+    private String text;
+    private ByteBuffer received;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        text = "x".repeat(messageSize);
+        received = ByteBuffer.allocateDirect(messageSize);
+        received.put(text.getBytes(StandardCharsets.UTF_8)).flip();
+
+        reencodePublisher = new MessagePublisher();
+        writeToPublisher = new MessagePublisher();
+        for (int i = 0; i < observers; i++) {
+            SinkChannel sink = new SinkChannel(messageSize);
+            reencodePublisher.attach(m -> sink.write(ByteBuffer.wrap(m.getMessage().getBytes(StandardCharsets.UTF_8))));
+            writeToPublisher.attach(m -> {
+                try {
+                    m.writeTo(sink);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public void reencode() {
+        reencodePublisher.notify(new Message(text));
+    }
+
+    @Benchmark
+    public void sharedString() {
+        writeToPublisher.notify(new Message(text));
+    }
+
+    @Benchmark
+    public void buffer() {
+        writeToPublisher.notify(new BufferMessage(null, received));
+    }
+}
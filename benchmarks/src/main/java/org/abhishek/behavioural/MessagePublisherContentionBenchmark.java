@@ -0,0 +1,113 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/*
+Many threads publishing while one thread keeps attaching and detaching an observer.
+
+copyOnWrite is MessagePublisher; locking is the ArrayList publisher made safe with a lock around every
+operation, the obvious alternative.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class MessagePublisherContentionBenchmark {
+
+    static class LockingPublisher implements Subject {
+        private final ArrayList<Observer> observerList = new ArrayList<>();
+
+        @Override
+        public synchronized void attach(Observer observer) {
+            observerList.add(observer);
+        }
+
+        @Override
+        public synchronized void detach(Observer observer) {
+            observerList.remove(observer);
+        }
+
+        @Override
+        public synchronized void notify(Message message) {
+            for (Observer observer : observerList) {
+                observer.update(message);
+            }
+        }
+    }
+
+    static class CountingObserver implements Observer {
+        int received;
+
+        @Override
+        public void update(Message message) {
+            received++;
+        }
+    }
+
+    @Param({"10", "100"})
+    private int observerCount;
+
+    private Subject copyOnWrite;
+    private Subject locking;
+    private Observer churn;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        copyOnWrite = new MessagePublisher();
+        locking = new LockingPublisher();
+        for (int i = 0; i < observerCount; i++) {
+            copyOnWrite.attach(new CountingObserver());
+            locking.attach(new CountingObserver());
+        }
+        churn = new CountingObserver();
+        message = new Message("benchmark");
+    }
+
+    @Benchmark
+    @Group("copyOnWrite")
+    @GroupThreads(7)
+    public void copyOnWriteNotify() {
+        copyOnWrite.notify(message);
+    }
+
+    @Benchmark
+    @Group("copyOnWrite")
+    @GroupThreads(1)
+    public void copyOnWriteChurn() {
+        copyOnWrite.attach(churn);
+        copyOnWrite.detach(churn);
+    }
+
+    @Benchmark
+    @Group("locking")
+    @GroupThreads(7)
+    public void lockingNotify() {
+        locking.notify(message);
+    }
+
+    @Benchmark
+    @Group("locking")
+    @GroupThreads(1)
+    public void lockingChurn() {
+        locking.attach(churn);
+        locking.detach(churn);
+    }
+}
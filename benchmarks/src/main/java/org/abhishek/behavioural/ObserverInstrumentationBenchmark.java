@@ -0,0 +1,73 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/*
+Cost of observer instrumentation on notify.
+
+baseline walks a plain Observer[] the way MessagePublisher did before instrumentation existed; disabled is
+MessagePublisher.notify with instrumentation off, the difference is the null check. enabled times every
+update() (two nanoTime calls and a histogram increment per observer) with a budget nobody exceeds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObserverInstrumentationBenchmark {
+
+    @Param({"1", "16"})
+    public int observers;
+
+    private Observer[] baseline;
+    private MessagePublisher disabled;
+    private MessagePublisher enabled;
+    private final Message message = new Message("Message");
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        baseline = new Observer[observers];
+        disabled = new MessagePublisher();
+        enabled = new MessagePublisher();
+        for (int i = 0; i < observers; i++) {
+            Observer observer = blackhole::consume;
+            baseline[i] = observer;
+            disabled.attach(observer);
+            enabled.attach(observer);
+        }
+        enabled.enableInstrumentation(Duration.ofSeconds(1), 0);
+    }
+
+    @Benchmark
+    public void baseline() {
+        for (Observer observer : baseline) {
+            observer.update(message);
+        }
+    }
+
+    @Benchmark
+    public void disabled() {
+        disabled.notify(message);
+    }
+
+    @Benchmark
+    public void enabled() {
+        enabled.notify(message);
+    }
+}
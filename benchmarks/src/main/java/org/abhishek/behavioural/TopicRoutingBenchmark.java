@@ -0,0 +1,75 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Publishing one message to a topic with 10 interested subscribers while the total number of subscribers
+grows: topic subscriptions against every subscriber filtering by topic inside update().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TopicRoutingBenchmark {
+
+    private static final int SUBSCRIBERS_PER_TOPIC = 10;
+
+    static class TopicFilteringObserver implements Observer {
+        private final String topic;
+        int received;
+
+        TopicFilteringObserver(String topic) {
+            this.topic = topic;
+        }
+
+        @Override
+        public void update(Message message) {
+            if (topic.equals(message.getTopic())) {
+                received++;
+            }
+        }
+    }
+
+    @Param({"100", "1000", "10000"})
+    private int subscriberCount;
+
+    private MessagePublisher routed;
+    private MessagePublisher filtered;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        routed = new MessagePublisher();
+        filtered = new MessagePublisher();
+        for (int i = 0; i < subscriberCount; i++) {
+            String topic = "topic-" + i / SUBSCRIBERS_PER_TOPIC;
+            routed.attach(topic, new TopicFilteringObserver(topic));
+            filtered.attach(new TopicFilteringObserver(topic));
+        }
+        message = new Message("topic-0", "benchmark");
+    }
+
+    @Benchmark
+    public void routedByTopic() {
+        routed.notify(message);
+    }
+
+    @Benchmark
+    public void filteredInUpdate() {
+        filtered.notify(message);
+    }
+}
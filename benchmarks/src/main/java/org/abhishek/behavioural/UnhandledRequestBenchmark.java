@@ -0,0 +1,91 @@
+package org.abhishek.behavioural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+A support chain without a director under a request mix where unhandledPercent of the requests (LEVEL_FOUR
+and INVALID_REQUEST) reach the end of the chain unhandled.
+
+outcome reports them as Outcome.UNHANDLED; throwing uses UnhandledPolicy.THROW and catches the
+IllegalArgumentException, which is what every unhandled request used to cost. Run with -prof gc to see the
+exception allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UnhandledRequestBenchmark {
+
+    private static final int MIX_SIZE = 1024;
+
+    @Param({"10", "50", "90"})
+    public int unhandledPercent;
+
+    private SupportService outcome;
+    private SupportService throwing;
+    private ServiceRequest[] requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FrontDeskSupport frontDesk = new FrontDeskSupport();
+        SuperVisorSupport supervisor = new SuperVisorSupport();
+        ManagerSupport manager = new ManagerSupport();
+        frontDesk.setNext(supervisor);
+        supervisor.setNext(manager);
+
+        outcome = new SupportService();
+        outcome.setHandler(frontDesk);
+        throwing = new SupportService();
+        throwing.setHandler(frontDesk);
+        throwing.setUnhandledPolicy(UnhandledPolicy.THROW);
+
+        Random random = new Random(42);
+        requests = new ServiceRequest[MIX_SIZE];
+        for (int i = 0; i < MIX_SIZE; i++) {
+            ServiceRequest request = new ServiceRequest();
+            if (random.nextInt(100) < unhandledPercent) {
+                request.setType(random.nextBoolean() ? ServiceLevel.LEVEL_FOUR : ServiceLevel.INVALID_REQUEST);
+            } else {
+                request.setType(ServiceLevel.values()[random.nextInt(3)]);
+            }
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public boolean outcome() {
+        return outcome.handleRequest(nextRequest()).isHandled();
+    }
+
+    @Benchmark
+    public boolean throwing() {
+        try {
+            return throwing.handleRequest(nextRequest()).isHandled();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private ServiceRequest nextRequest() {
+        ServiceRequest request = requests[next];
+        next = (next + 1) & (MIX_SIZE - 1);
+        return request;
+    }
+}
@@ -0,0 +1,95 @@
+package org.abhishek.behavioural;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Subscribers that come and go without ever detaching, the leak weak subscriptions are meant to stop.
+
+Every round attaches a batch of subscribers (each holding some state), publishes to them, then forgets
+them. With attachWeak the retained heap, the number of attached observers and the notify time stay flat from
+round to round; pass "strong" to see them grow with attach instead. Fails if the weak run doesn't stay flat,
+i.e. ends with more observers or heap than one round adds, or a notify more than NOTIFY_GROWTH times as slow
+as in the first round (which runs colder, so a flat run stays well below that):
+    java -cp target/benchmarks.jar org.abhishek.behavioural.WeakSubscriptionChurn [weak|strong] [rounds]
+ */
+public class WeakSubscriptionChurn {
+
+    private static final int SUBSCRIBERS_PER_ROUND = 10_000;
+    private static final int NOTIFIES_PER_ROUND = 100;
+    private static final int STATE_BYTES = 1024;
+    private static final int NOTIFY_GROWTH = 3;
+
+    static final class Subscriber implements Observer {
+        private final byte[] state = new byte[STATE_BYTES];
+
+        @Override
+        public void update(Message message) {
+            state[0]++;
+        }
+    }
+
+    public static void main(String[] args) {
+        boolean weak = args.length == 0 || !args[0].equals("strong");
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        MessagePublisher publisher = new MessagePublisher();
+        Message message = new Message("Message");
+        long firstHeap = 0;
+        long lastHeap = 0;
+        int lastObservers = 0;
+        long firstNotifyNanos = 0;
+        long lastNotifyNanos = 0;
+
+        for (int round = 1; round <= rounds; round++) {
+            List<Subscriber> subscribers = new ArrayList<>(SUBSCRIBERS_PER_ROUND);
+            for (int i = 0; i < SUBSCRIBERS_PER_ROUND; i++) {
+                Subscriber subscriber = new Subscriber();
+                subscribers.add(subscriber);
+                if (weak) {
+                    publisher.attachWeak(subscriber);
+                } else {
+                    publisher.attach(subscriber);
+                }
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < NOTIFIES_PER_ROUND; i++) {
+                publisher.notify(message);
+            }
+            long notifyNanos = (System.nanoTime() - start) / NOTIFIES_PER_ROUND;
+            lastNotifyNanos = notifyNanos;
+
+            //the subscribers are done but never detach
+            subscribers = null;
+            lastHeap = usedHeap();
+            //one notify prunes what the collection cleared
+            publisher.notify(message);
+            lastObservers = publisher.getObserverCount();
+            if (round == 1) {
+                firstHeap = lastHeap;
+                firstNotifyNanos = notifyNanos;
+            }
+            System.out.printf("round %2d : %6d observers, heap %7d KB, notify %8d ns%n",
+                    round, lastObservers, lastHeap / 1024, notifyNanos);
+        }
+
+        if (weak && (lastObservers > SUBSCRIBERS_PER_ROUND
+                || lastHeap > firstHeap + (long) SUBSCRIBERS_PER_ROUND * STATE_BYTES)) {
+            throw new AssertionError("weak subscriptions are retained: " + lastObservers + " observers, "
+                    + lastHeap / 1024 + " KB heap");
+        }
+        if (weak && lastNotifyNanos > NOTIFY_GROWTH * firstNotifyNanos) {
+            throw new AssertionError("notify slows down with weak subscriptions: " + lastNotifyNanos + " ns, "
+                    + firstNotifyNanos + " ns in the first round");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
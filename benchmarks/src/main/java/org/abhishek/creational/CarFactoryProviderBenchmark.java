@@ -0,0 +1,62 @@
+package org.abhishek.creational;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Creating a car family for a region: new concrete factory per call (as in AbstractFactory.main) against the
+cached CarFactoryProvider, single threaded and with 4 threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarFactoryProviderBenchmark {
+
+    private CarFactoryProvider provider;
+    private Region[] regions;
+
+    @Setup
+    public void setUp() {
+        provider = new CarFactoryProvider();
+        regions = new Region[10_000];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = Region.values()[i % Region.values().length];
+        }
+    }
+
+    @Benchmark
+    public CarFamily newFactoryPerCall() {
+        CarFactory factory = new EuropeanCarFactory();
+        return new CarFamily(factory.createCar(), factory.createSpecs());
+    }
+
+    @Benchmark
+    public CarFamily provider() {
+        return provider.createFamily(Region.EUROPE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CarFamily providerContended() {
+        return provider.createFamily(Region.EUROPE);
+    }
+
+    @Benchmark
+    public CarFamily[] providerParallelBatch() {
+        return provider.createFamilies(regions);
+    }
+}
@@ -0,0 +1,63 @@
+package org.abhishek.creational;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Building a batch of computers with a new builder per computer against ComputerDirector reusing one builder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComputerDirectorBenchmark {
+
+    @Param({"100", "10000"})
+    private int batchSize;
+
+    private ComputerDirector director;
+    private Computer[] reused;
+
+    @Setup
+    public void setUp() {
+        director = new ComputerDirector(GamingComputerBuilder::new);
+        reused = new Computer[batchSize];
+    }
+
+    @Benchmark
+    public Computer[] builderPerComputer() {
+        Computer[] computers = new Computer[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            GamingComputerBuilder builder = new GamingComputerBuilder();
+            builder.buildCPU();
+            builder.buildRAM();
+            builder.buildStorage();
+            computers[i] = builder.build();
+        }
+        return computers;
+    }
+
+    @Benchmark
+    public Computer[] directorBatch() {
+        return director.constructBatch(batchSize);
+    }
+
+    @Benchmark
+    public Computer[] directorBatchIntoArray() {
+        director.constructBatch(reused, 0, batchSize);
+        return reused;
+    }
+}
@@ -0,0 +1,75 @@
+package org.abhishek.creational;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Per-call cost of the creational patterns: factory method, abstract factory, builders, singleton and prototype.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CreationalBenchmark {
+
+    private VehicleFactory vehicleFactory;
+    private CarFactory carFactory;
+
+    @Setup
+    public void setUp() {
+        vehicleFactory = new FourWheelerFactory();
+        carFactory = new IndianCarFactory();
+    }
+
+    @Benchmark
+    public Vehicle factoryMethod() {
+        return vehicleFactory.createVehicle();
+    }
+
+    @Benchmark
+    public void abstractFactory(Blackhole bh) {
+        bh.consume(carFactory.createCar());
+        bh.consume(carFactory.createSpecs());
+    }
+
+    @Benchmark
+    public Computer computerBuilder() {
+        GamingComputerBuilder builder = new GamingComputerBuilder();
+        builder.buildCPU();
+        builder.buildRAM();
+        builder.buildStorage();
+        return builder.build();
+    }
+
+    @Benchmark
+    public UserBuilder userBuilder() {
+        return UserBuilder.builder()
+                .name("Alice")
+                .age(30)
+                .email("alice@example.com")
+                .build();
+    }
+
+    @Benchmark
+    public DemoSingleton singleton() {
+        return DemoSingleton.getInstance();
+    }
+
+    @Benchmark
+    public PrototypeCapable prototype() throws CloneNotSupportedException {
+        return PrototypeFactory.getInstance(PrototypeFactory.ModelType.MOVIE);
+    }
+}
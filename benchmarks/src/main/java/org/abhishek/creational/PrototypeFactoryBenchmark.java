@@ -0,0 +1,65 @@
+package org.abhishek.creational;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Multi-threaded throughput of PrototypeFactory.getInstance for each copy strategy, and of a pooled
+acquire/release cycle against copy-and-discard.
+Run with -t to change the thread count, the default is 4.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PrototypeFactoryBenchmark {
+
+    private static final String CLONING = "bench-cloning";
+    private static final String LAMBDA = "bench-lambda";
+    private static final String METHOD_HANDLE = "bench-method-handle";
+    private static final String POOLED = "bench-pooled";
+
+    @Setup
+    public void setUp() {
+        PrototypeFactory.register(CLONING, new Movie());
+        PrototypeFactory.register(LAMBDA, new Movie(), Movie::new);
+        PrototypeFactory.register(METHOD_HANDLE, new Movie(), CopyStrategies.copyConstructor(Movie.class));
+        PrototypeFactory.registerPooled(POOLED, new Movie(), Movie::new, (instance, prototype) -> { });
+    }
+
+    @Benchmark
+    public PrototypeCapable cloning() throws CloneNotSupportedException {
+        return PrototypeFactory.getInstance(CLONING);
+    }
+
+    @Benchmark
+    public PrototypeCapable copyConstructorLambda() throws CloneNotSupportedException {
+        return PrototypeFactory.getInstance(LAMBDA);
+    }
+
+    @Benchmark
+    public PrototypeCapable copyConstructorMethodHandle() throws CloneNotSupportedException {
+        return PrototypeFactory.getInstance(METHOD_HANDLE);
+    }
+
+    @Benchmark
+    public PrototypeCapable pooledAcquireRelease() throws CloneNotSupportedException {
+        PrototypeCapable instance = PrototypeFactory.acquire(POOLED);
+        PrototypeFactory.release(POOLED, instance);
+        return instance;
+    }
+}
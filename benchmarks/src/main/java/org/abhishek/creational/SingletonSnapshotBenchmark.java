@@ -0,0 +1,87 @@
+package org.abhishek.creational;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+Checkpointing DemoSingleton with SingletonSnapshot against ObjectOutputStream/ObjectInputStream.
+Java serialization never fsyncs, so the snapshot is measured with and without force.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SingletonSnapshotBenchmark {
+
+    @Param({"false", "true"})
+    private boolean force;
+
+    private Path directory;
+    private Path snapshotFile;
+    private Path serializedFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("singleton-bench");
+        snapshotFile = directory.resolve("singleton.snapshot");
+        serializedFile = directory.resolve("singleton.ser");
+
+        DemoSingleton.getInstance().setValue("checkpointed value");
+        SingletonSnapshot.write(DemoSingleton.getInstance(), snapshotFile, false);
+        javaSerializationWrite();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void snapshotWrite() throws IOException {
+        SingletonSnapshot.write(DemoSingleton.getInstance(), snapshotFile, force);
+    }
+
+    @Benchmark
+    public DemoSingleton snapshotRead() throws IOException {
+        return SingletonSnapshot.read(snapshotFile);
+    }
+
+    @Benchmark
+    public void javaSerializationWrite() throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(serializedFile.toFile()))) {
+            out.writeObject(DemoSingleton.getInstance());
+        }
+    }
+
+    @Benchmark
+    public DemoSingleton javaSerializationRead() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(serializedFile.toFile()))) {
+            return (DemoSingleton) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.abhishek.creational;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+
+/*
+UserBuilder objects against the columnar UserStore: loading N users and scanning the ages of all of them.
+
+Run with -prof gc to compare the bytes allocated per load. main() prints the retained heap of both layouts:
+    java -cp target/benchmarks.jar org.abhishek.creational.UserStoreBenchmark [users]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class UserStoreBenchmark {
+
+    //names and emails repeat, as they do in real data sets
+    private static final int DISTINCT_NAMES = 10_000;
+
+    @Param({"1000000"})
+    private int users;
+
+    private String[] names;
+    private String[] emails;
+    private UserBuilder[] objects;
+    private UserStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        names = new String[DISTINCT_NAMES];
+        emails = new String[DISTINCT_NAMES];
+        for (int i = 0; i < DISTINCT_NAMES; i++) {
+            names[i] = "user-" + i;
+            emails[i] = "user-" + i + "@example.com";
+        }
+        objects = loadObjects();
+        store = loadColumnar();
+    }
+
+    @Benchmark
+    public UserBuilder[] loadObjects() {
+        UserBuilder[] result = new UserBuilder[users];
+        for (int i = 0; i < users; i++) {
+            int n = i % DISTINCT_NAMES;
+            result[i] = UserBuilder.builder().name(names[n]).age(i % 90).email(emails[n]).build();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public UserStore loadColumnar() {
+        UserBuilder.ColumnarBuilder builder = UserBuilder.bulkBuilder(users);
+        for (int i = 0; i < users; i++) {
+            int n = i % DISTINCT_NAMES;
+            builder.name(names[n]).age(i % 90).email(emails[n]).append();
+        }
+        return builder.store();
+    }
+
+    @Benchmark
+    public long scanObjects() {
+        long total = 0;
+        for (UserBuilder user : objects) {
+            total += user.getAge();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long scanColumnar() {
+        long total = 0;
+        for (int i = 0, size = store.size(); i < size; i++) {
+            total += store.ageAt(i);
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        UserStoreBenchmark benchmark = new UserStoreBenchmark();
+        benchmark.users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        benchmark.setUp();
+        benchmark.objects = null;
+        benchmark.store = null;
+
+        //the name/email strings are shared by both layouts and already part of the baseline
+        long baseline = usedHeap();
+        UserBuilder[] objects = benchmark.loadObjects();
+        long objectsHeap = usedHeap() - baseline;
+        Reference.reachabilityFence(objects);
+        objects = null;
+
+        baseline = usedHeap();
+        UserStore store = benchmark.loadColumnar();
+        long storeHeap = usedHeap() - baseline;
+        Reference.reachabilityFence(store);
+
+        System.out.println(benchmark.users + " users");
+        System.out.println("UserBuilder objects : " + objectsHeap / 1024 + " KB");
+        System.out.println("UserStore           : " + storeHeap / 1024 + " KB");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,91 @@
+package org.abhishek.creational;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+Creating a vehicle from a string key: VehicleRegistry against a reflective constructor lookup and against
+the VehicleFactory subclass picked from a map.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VehicleRegistryBenchmark {
+
+    private static final String KEY = "four";
+    private static final int BULK = 1024;
+
+    private VehicleRegistry<String> registry;
+    private Map<String, VehicleFactory> subclasses;
+    private Map<String, Class<? extends Vehicle>> classes;
+    private Map<String, Constructor<? extends Vehicle>> constructors;
+    private Vehicle[] into;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        registry = VehicleRegistry.forStrings().register(KEY, FourWheeler.class);
+
+        subclasses = new HashMap<>();
+        subclasses.put(KEY, new FourWheelerFactory());
+
+        classes = new HashMap<>();
+        classes.put(KEY, FourWheeler.class);
+
+        constructors = new HashMap<>();
+        constructors.put(KEY, FourWheeler.class.getDeclaredConstructor());
+
+        into = new Vehicle[BULK];
+    }
+
+    @Benchmark
+    public Vehicle registry() {
+        return registry.createVehicle(KEY);
+    }
+
+    @Benchmark
+    public Vehicle subclassFactory() {
+        return subclasses.get(KEY).createVehicle();
+    }
+
+    @Benchmark
+    public Vehicle reflectionPerCall() throws ReflectiveOperationException {
+        return classes.get(KEY).getDeclaredConstructor().newInstance();
+    }
+
+    @Benchmark
+    public Vehicle reflectionCachedConstructor() throws InvocationTargetException, InstantiationException,
+            IllegalAccessException {
+        return constructors.get(KEY).newInstance();
+    }
+
+    @Benchmark
+    public Vehicle[] registryBulk() {
+        registry.createVehicles(KEY, into, 0, BULK);
+        return into;
+    }
+
+    @Benchmark
+    public Vehicle[] subclassFactoryBulk() {
+        for (int i = 0; i < BULK; i++) {
+            into[i] = subclasses.get(KEY).createVehicle();
+        }
+        return into;
+    }
+}
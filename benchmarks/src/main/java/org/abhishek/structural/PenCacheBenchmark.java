@@ -0,0 +1,113 @@
+package org.abhishek.structural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+PenCache against the original get-then-put HashMap of PenFactory.
+
+The HashMap is only measured single threaded, it is not safe to share. The cache is measured with 1 and 4 threads,
+unbounded and bounded to half of the colors (so every other lookup misses and evicts).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PenCacheBenchmark {
+
+    //the original PenFactory lookup, kept here as the baseline
+    static class HashMapPenFactory {
+        private final HashMap<String, Pen> pensMap = new HashMap<>();
+
+        Pen getThickPen(String color) {
+            String key = color + "-THICK";
+            Pen pen = pensMap.get(key);
+            if (pen == null) {
+                pen = new ThickPen();
+                pen.setColor(color);
+                pensMap.put(key, pen);
+            }
+            return pen;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Caches {
+        @Param({"64", "1024"})
+        int colorCount;
+
+        String[] colors;
+        PenCache unbounded;
+        PenCache boundedLru;
+        PenCache boundedLfu;
+
+        @Setup
+        public void setUp() {
+            colors = new String[colorCount];
+            for (int i = 0; i < colorCount; i++) {
+                colors[i] = "COLOR-" + i;
+            }
+            unbounded = new PenCache();
+            boundedLru = new PenCache(colorCount / 2, EvictionPolicy.LRU);
+            boundedLfu = new PenCache(colorCount / 2, EvictionPolicy.LFU);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        HashMapPenFactory hashMap = new HashMapPenFactory();
+        int next;
+
+        String nextColor(Caches caches) {
+            String color = caches.colors[next];
+            next = next + 1 == caches.colors.length ? 0 : next + 1;
+            return color;
+        }
+    }
+
+    @Benchmark
+    public Pen hashMap(Caches caches, Cursor cursor) {
+        return cursor.hashMap.getThickPen(cursor.nextColor(caches));
+    }
+
+    @Benchmark
+    public Pen unbounded(Caches caches, Cursor cursor) {
+        return caches.unbounded.getPen(cursor.nextColor(caches), BrushSize.THICK);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Pen unboundedContended(Caches caches, Cursor cursor) {
+        return caches.unbounded.getPen(cursor.nextColor(caches), BrushSize.THICK);
+    }
+
+    @Benchmark
+    public Pen boundedLru(Caches caches, Cursor cursor) {
+        return caches.boundedLru.getPen(cursor.nextColor(caches), BrushSize.THICK);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Pen boundedLruContended(Caches caches, Cursor cursor) {
+        return caches.boundedLru.getPen(cursor.nextColor(caches), BrushSize.THICK);
+    }
+
+    @Benchmark
+    public Pen boundedLfu(Caches caches, Cursor cursor) {
+        return caches.boundedLfu.getPen(cursor.nextColor(caches), BrushSize.THICK);
+    }
+}
@@ -0,0 +1,94 @@
+package org.abhishek.structural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/*
+Allocation per PenFactory lookup once the pen is cached.
+
+Run through main() to assert that a cache hit allocates nothing: it runs this benchmark with the GC profiler
+and fails if gc.alloc.rate.norm (bytes allocated per operation) is above zero for any brush size.
+    java -cp target/benchmarks.jar org.abhishek.structural.PenLookupAllocationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PenLookupAllocationBenchmark {
+
+    //rounding noise of the profiler, a real allocation is at least 16 bytes
+    private static final double MAX_BYTES_PER_OP = 0.1;
+
+    @Param({"THIN", "MEDIUM", "THICK"})
+    private String brushSizeName;
+
+    private BrushSize brushSize;
+
+    private String[] colors;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        brushSize = BrushSize.valueOf(brushSizeName);
+        colors = new String[256];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = "COLOR-" + i;
+            lookup(colors[i]);
+        }
+    }
+
+    private Pen lookup(String color) {
+        return switch (brushSize) {
+            case THIN -> PenFactory.getThinPen(color);
+            case MEDIUM -> PenFactory.getMediumPen(color);
+            case THICK -> PenFactory.getThickPen(color);
+        };
+    }
+
+    @Benchmark
+    public Pen cachedLookup() {
+        String color = colors[next];
+        next = (next + 1) & (colors.length - 1);
+        return lookup(color);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(PenLookupAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        for (RunResult result : results) {
+            Result<?> allocated = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            String brushSize = result.getParams().getParam("brushSizeName");
+            if (allocated == null) {
+                throw new AssertionError("GC profiler did not report gc.alloc.rate.norm for " + brushSize);
+            }
+            if (allocated.getScore() > MAX_BYTES_PER_OP) {
+                throw new AssertionError("Cached " + brushSize + " pen lookup allocates "
+                        + allocated.getScore() + " bytes/op");
+            }
+            System.out.println("Cached " + brushSize + " pen lookup allocates " + allocated.getScore() + " bytes/op");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.abhishek.structural;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Decorator chains of growing depth and flyweight lookups against a growing number of cached pens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StructuralBenchmark {
+
+    @State(Scope.Thread)
+    public static class DecoratorState {
+        @Param({"1", "4", "16", "64"})
+        int chainDepth;
+
+        Pizza pizza;
+
+        @Setup
+        public void setUp() {
+            pizza = new PlainPizza();
+            for (int i = 0; i < chainDepth; i++) {
+                pizza = switch (i % 4) {
+                    case 0 -> new CheeseDecorator(pizza);
+                    case 1 -> new PepperoniDecorator(pizza);
+                    case 2 -> new MushroomDecorator(pizza);
+                    default -> new OliveDecorator(pizza);
+                };
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FlyWeightState {
+        @Param({"4", "64", "1024"})
+        int registrySize;
+
+        String[] colors;
+        int next;
+
+        @Setup
+        public void setUp() {
+            colors = new String[registrySize];
+            for (int i = 0; i < registrySize; i++) {
+                colors[i] = "COLOR-" + i;
+                PenFactory.getThickPen(colors[i]);
+            }
+        }
+
+        String nextColor() {
+            String color = colors[next];
+            next = next + 1 == colors.length ? 0 : next + 1;
+            return color;
+        }
+    }
+
+    @Benchmark
+    public double decoratorCost(DecoratorState state) {
+        return state.pizza.cost();
+    }
+
+    @Benchmark
+    public String decoratorDescription(DecoratorState state) {
+        return state.pizza.getDescription();
+    }
+
+    @Benchmark
+    public Pen flyweightLookup(FlyWeightState state) {
+        return PenFactory.getThickPen(state.nextColor());
+    }
+}
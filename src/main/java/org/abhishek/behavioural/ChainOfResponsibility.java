@@ -1,6 +1,5 @@
 package org.abhishek.behavioural;
 
-
 /*
 The main objective of this pattern is that it avoids coupling the sender of the request to the receiver,
 giving more than one object the opportunity to handle the request.
@@ -23,6 +22,18 @@ Please note that a request not handled at all by any handler is a valid use case
 
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
 enum ServiceLevel {
     LEVEL_ONE, LEVEL_TWO, LEVEL_THREE, LEVEL_FOUR, INVALID_REQUEST
 }
@@ -49,32 +60,122 @@ class ServiceRequest {
     }
 }
 
+/*
+What became of a request: handled, and by which handler, or not handled by anyone.
+Outcomes are allocated once per handler (and UNHANDLED once), handling a request allocates nothing.
+ */
+final class Outcome {
+    static final Outcome UNHANDLED = new Outcome(null);
+
+    private final SupportServiceItf handler;
+
+    Outcome(SupportServiceItf handler) {
+        this.handler = handler;
+    }
+
+    public boolean isHandled() {
+        return handler != null;
+    }
+
+    //null when unhandled
+    public SupportServiceItf getHandler() {
+        return handler;
+    }
+
+    @Override
+    public String toString() {
+        return handler == null ? "Unhandled" : "Handled by " + handler.getClass().getSimpleName();
+    }
+}
+
 interface SupportServiceItf {
-    void handleRequest(ServiceRequest request);
+    //never throws for a request nobody handles, returns Outcome.UNHANDLED
+    Outcome handleRequest(ServiceRequest request);
+}
+
+//What SupportService does with a request the chain didn't handle
+enum UnhandledPolicy {
+    //return Outcome.UNHANDLED
+    OUTCOME,
+    //throw IllegalArgumentException, as the chain did before it reported outcomes
+    THROW
 }
 
-//Handler
+/*
+Handler
+The first handler is held in an AtomicReference: a new handler (typically a SupportChain snapshot) is visible
+to every thread as soon as it is set, and a request uses the one it read when it started.
+ */
 class SupportService implements SupportServiceItf {
-    private SupportServiceItf handler = null;
+    private final AtomicReference<SupportServiceItf> handler = new AtomicReference<>();
+    private volatile UnhandledPolicy unhandledPolicy = UnhandledPolicy.OUTCOME;
 
     public SupportServiceItf getHandler() {
-        return handler;
+        return handler.get();
     }
 
     public void setHandler(SupportServiceItf handler) {
-        this.handler = handler;
+        this.handler.set(handler);
+    }
+
+    /*
+    Reconfigures the chain without locking requests out: update gets the current snapshot and returns the
+    new one, which is published atomically; update is retried if another reconfiguration got in between,
+    so it must not have side effects. The current handler has to be a SupportChain.
+     */
+    public SupportChain updateChain(UnaryOperator<SupportChain> update) {
+        while (true) {
+            SupportServiceItf current = handler.get();
+            if (!(current instanceof SupportChain chain)) {
+                throw new IllegalStateException("Handler is not a SupportChain ::" + current);
+            }
+            SupportChain updated = Objects.requireNonNull(update.apply(chain), "chain");
+            if (handler.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    public UnhandledPolicy getUnhandledPolicy() {
+        return unhandledPolicy;
+    }
+
+    public void setUnhandledPolicy(UnhandledPolicy unhandledPolicy) {
+        this.unhandledPolicy = unhandledPolicy;
     }
 
     @Override
-    public void handleRequest(ServiceRequest request) {
-        handler.handleRequest(request);
+    public Outcome handleRequest(ServiceRequest request) {
+        Outcome outcome = handler.get().handleRequest(request);
+        if (!outcome.isHandled() && unhandledPolicy == UnhandledPolicy.THROW) {
+            throw new IllegalArgumentException("No handler found for ::" + request.getType());
+        }
+        return outcome;
+    }
+
+    //dispatches by table from now on, see CompiledSupportChain; call again after changing the chain
+    public void compile() {
+        handler.updateAndGet(CompiledSupportChain::compile);
     }
 }
 
-//Concrete handlers
-class FrontDeskSupport implements SupportServiceItf {
+/*
+Handler for one ServiceLevel: resolves requests of its level, passes anything else to the next handler.
+Requests no handler takes end at the last handler of the chain, see unhandled().
+ */
+abstract class LevelSupport implements SupportServiceItf {
+    private final ServiceLevel level;
+    private final Outcome handled = new Outcome(this);
     private SupportServiceItf next = null;
 
+    protected LevelSupport(ServiceLevel level) {
+        this.level = level;
+    }
+
+    public ServiceLevel getLevel() {
+        return level;
+    }
+
     public SupportServiceItf getNext() {
         return next;
     }
@@ -84,22 +185,100 @@ class FrontDeskSupport implements SupportServiceItf {
     }
 
     @Override
-    public void handleRequest(ServiceRequest service) {
-        if (service.getType() == ServiceLevel.LEVEL_ONE) {
-            service.setConclusion("Front desk solved level one request !!");
+    public Outcome handleRequest(ServiceRequest service) {
+        if (service.getType() == level) {
+            resolve(service);
+            return handled;
         } else {
             if (next != null) {
-                next.handleRequest(service);
+                return next.handleRequest(service);
             } else {
-                throw new IllegalArgumentException("No handler found for ::" + service.getType());
+                return unhandled(service);
             }
         }
     }
+
+    protected abstract void resolve(ServiceRequest service);
+
+    //called on the last handler of the chain when nobody took the request
+    protected Outcome unhandled(ServiceRequest service) {
+        return Outcome.UNHANDLED;
+    }
+
+    //the outcome of requests this handler resolves
+    protected Outcome handled() {
+        return handled;
+    }
+}
+
+//Concrete handlers
+class FrontDeskSupport extends LevelSupport {
+
+    public FrontDeskSupport() {
+        super(ServiceLevel.LEVEL_ONE);
+    }
+
+    @Override
+    protected void resolve(ServiceRequest service) {
+        service.setConclusion("Front desk solved level one request !!");
+    }
 }
 
-class SuperVisorSupport implements SupportServiceItf {
+class SuperVisorSupport extends LevelSupport {
+
+    public SuperVisorSupport() {
+        super(ServiceLevel.LEVEL_TWO);
+    }
+
+    @Override
+    protected void resolve(ServiceRequest service) {
+        service.setConclusion("Supervisor solved level one request !!");
+    }
+}
+
+class ManagerSupport extends LevelSupport {
+
+    public ManagerSupport() {
+        super(ServiceLevel.LEVEL_THREE);
+    }
+
+    @Override
+    protected void resolve(ServiceRequest service) {
+        service.setConclusion("Manger solved level one request !!");
+    }
+}
+
+class DirectorSupport extends LevelSupport {
+
+    public DirectorSupport() {
+        super(ServiceLevel.LEVEL_FOUR);
+    }
+
+    @Override
+    protected void resolve(ServiceRequest service) {
+        service.setConclusion("Director solved level one request !!");
+    }
+
+    //the director closes whatever reaches the end of the chain
+    @Override
+    protected Outcome unhandled(ServiceRequest service) {
+        service.setConclusion("Problem is none of our business");
+        return handled();
+    }
+}
+
+//Handler that decides by looking at the whole request instead of its level
+class PredicateSupport implements SupportServiceItf {
+    private final Predicate<ServiceRequest> accepts;
+    private final String conclusion;
+    private final Outcome handled = new Outcome(this);
     private SupportServiceItf next = null;
 
+    public PredicateSupport(Predicate<ServiceRequest> accepts, String conclusion) {
+        this.accepts = accepts;
+        this.conclusion = conclusion;
+    }
+
     public SupportServiceItf getNext() {
         return next;
     }
@@ -109,69 +288,336 @@ class SuperVisorSupport implements SupportServiceItf {
     }
 
     @Override
-    public void handleRequest(ServiceRequest service) {
-        if (service.getType() == ServiceLevel.LEVEL_TWO) {
-            service.setConclusion("Supervisor solved level one request !!");
+    public Outcome handleRequest(ServiceRequest service) {
+        if (tryResolve(service)) {
+            return handled;
         } else {
             if (next != null) {
-                next.handleRequest(service);
+                return next.handleRequest(service);
             } else {
-                throw new IllegalArgumentException("No handler found for ::" + service.getType());
+                return Outcome.UNHANDLED;
             }
         }
     }
+
+    //concludes the request if this handler takes it, without consulting next
+    boolean tryResolve(ServiceRequest service) {
+        if (accepts.test(service)) {
+            service.setConclusion(conclusion);
+            return true;
+        }
+        return false;
+    }
+
+    Outcome handled() {
+        return handled;
+    }
 }
 
-class ManagerSupport implements SupportServiceItf {
-    private SupportServiceItf next = null;
+/*
+Immutable chain: an ordered array of handlers that is never changed once built, so it can be swapped in
+while requests are running (see SupportService.updateChain) - RCU style, a request finishes on the snapshot
+it started with and the next one sees the new snapshot.
+
+The snapshot ignores the handlers' own next links: it walks its array itself, so the same handler objects
+can sit in any number of snapshots. Results are those of linking the handlers in array order. Like
+CompiledSupportChain it looks levels up in a table up to the first handler that is neither a LevelSupport nor
+a PredicateSupport; such a handler gets everything not taken before it and handles it along its own links.
+Changes return a new snapshot.
+ */
+final class SupportChain implements SupportServiceItf {
+    private static final ServiceLevel[] LEVELS = ServiceLevel.values();
+
+    private final SupportServiceItf[] handlers;
+    //by level ordinal, the handler that takes the level; null: walk from firstToWalk
+    private final LevelSupport[] byLevel;
+    private final int firstToWalk;
+
+    private SupportChain(SupportServiceItf[] handlers) {
+        this.handlers = handlers;
+        this.byLevel = new LevelSupport[LEVELS.length];
+        int i = 0;
+        while (i < handlers.length && handlers[i] instanceof LevelSupport levelSupport) {
+            int level = levelSupport.getLevel().ordinal();
+            if (byLevel[level] == null) {
+                byLevel[level] = levelSupport;
+            }
+            i++;
+        }
+        //a predicate handler can take any level, from there on the array is walked
+        this.firstToWalk = i;
+    }
 
-    public SupportServiceItf getNext() {
-        return next;
+    public static SupportChain of(SupportServiceItf... handlers) {
+        for (SupportServiceItf handler : handlers) {
+            Objects.requireNonNull(handler, "handler");
+        }
+        return new SupportChain(handlers.clone());
     }
 
-    public void setNext(SupportServiceItf next) {
-        this.next = next;
+    public List<SupportServiceItf> getHandlers() {
+        return List.of(handlers);
+    }
+
+    public SupportChain withHandler(SupportServiceItf handler) {
+        Objects.requireNonNull(handler, "handler");
+        SupportServiceItf[] updated = Arrays.copyOf(handlers, handlers.length + 1);
+        updated[handlers.length] = handler;
+        return new SupportChain(updated);
+    }
+
+    //handler in place of current, wherever current is
+    public SupportChain replace(SupportServiceItf current, SupportServiceItf handler) {
+        Objects.requireNonNull(handler, "handler");
+        SupportServiceItf[] updated = handlers.clone();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == current) {
+                updated[i] = handler;
+                return new SupportChain(updated);
+            }
+        }
+        throw new IllegalArgumentException("No such handler in the chain ::" + current);
+    }
+
+    public SupportChain without(SupportServiceItf handler) {
+        for (int i = 0; i < handlers.length; i++) {
+            if (handlers[i] == handler) {
+                SupportServiceItf[] updated = new SupportServiceItf[handlers.length - 1];
+                System.arraycopy(handlers, 0, updated, 0, i);
+                System.arraycopy(handlers, i + 1, updated, i, handlers.length - i - 1);
+                return new SupportChain(updated);
+            }
+        }
+        throw new IllegalArgumentException("No such handler in the chain ::" + handler);
     }
 
     @Override
-    public void handleRequest(ServiceRequest service) {
-        if (service.getType() == ServiceLevel.LEVEL_THREE) {
-            service.setConclusion("Manger solved level one request !!");
-        } else {
-            if (next != null) {
-                next.handleRequest(service);
+    public Outcome handleRequest(ServiceRequest request) {
+        ServiceLevel type = request.getType();
+        if (type != null) {
+            LevelSupport levelSupport = byLevel[type.ordinal()];
+            if (levelSupport != null) {
+                levelSupport.resolve(request);
+                return levelSupport.handled();
+            }
+        }
+        for (int i = firstToWalk; i < handlers.length; i++) {
+            SupportServiceItf handler = handlers[i];
+            if (handler instanceof LevelSupport levelSupport) {
+                if (type == levelSupport.getLevel()) {
+                    levelSupport.resolve(request);
+                    return levelSupport.handled();
+                }
+            } else if (handler instanceof PredicateSupport predicateSupport) {
+                if (predicateSupport.tryResolve(request)) {
+                    return predicateSupport.handled();
+                }
             } else {
-                throw new IllegalArgumentException("No handler found for ::" + service.getType());
+                return handler.handleRequest(request);
             }
         }
+        if (handlers.length > 0 && handlers[handlers.length - 1] instanceof LevelSupport last) {
+            return last.unhandled(request);
+        }
+        return Outcome.UNHANDLED;
     }
 }
 
-class DirectorSupport implements SupportServiceItf {
-    private SupportServiceItf next = null;
+/*
+A configured chain compiled into a table indexed by ServiceLevel, so a request goes straight to the handler
+that would have taken it instead of being passed along the chain.
 
-    public SupportServiceItf getNext() {
-        return next;
+compile() walks the chain once. The first LevelSupport of each level gets its level. At the first handler
+that isn't a LevelSupport (e.g. a PredicateSupport) the walk stops: every level without a handler yet starts
+an ordinary traversal there, since any handler from that point on could take it. If the walk reaches the end
+instead, those levels go to the last handler's unhandled(). Outcomes and conclusions are the same as walking
+the chain.
+
+The table is a snapshot: compile again after changing the chain.
+ */
+class CompiledSupportChain implements SupportServiceItf {
+    private static final ServiceLevel[] LEVELS = ServiceLevel.values();
+
+    private final SupportServiceItf first;
+    private final SupportServiceItf[] table;
+    //for requests without a level, they never match a LevelSupport
+    private final SupportServiceItf noLevel;
+
+    private CompiledSupportChain(SupportServiceItf first, SupportServiceItf[] table, SupportServiceItf noLevel) {
+        this.first = first;
+        this.table = table;
+        this.noLevel = noLevel;
     }
 
-    public void setNext(SupportServiceItf next) {
-        this.next = next;
+    //compiling a compiled chain compiles its first handler again
+    public static CompiledSupportChain compile(SupportServiceItf first) {
+        Objects.requireNonNull(first, "first");
+        if (first instanceof CompiledSupportChain compiled) {
+            first = compiled.first;
+        }
+        SupportServiceItf[] table = new SupportServiceItf[LEVELS.length];
+        SupportServiceItf handler = first;
+        SupportServiceItf rest;
+        while (true) {
+            if (!(handler instanceof LevelSupport levelSupport)) {
+                rest = handler;
+                break;
+            }
+            int level = levelSupport.getLevel().ordinal();
+            if (table[level] == null) {
+                table[level] = levelSupport;
+            }
+            if (levelSupport.getNext() == null) {
+                rest = levelSupport::unhandled;
+                break;
+            }
+            handler = levelSupport.getNext();
+        }
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] == null) {
+                table[i] = rest;
+            }
+        }
+        return new CompiledSupportChain(first, table, rest);
     }
 
     @Override
-    public void handleRequest(ServiceRequest service) {
-        if (service.getType() == ServiceLevel.LEVEL_FOUR) {
-            service.setConclusion("Director solved level one request !!");
-        } else {
-            if (next != null) {
-                next.handleRequest(service);
-            } else {
-                service.setConclusion("Problem is none of our business");
+    public Outcome handleRequest(ServiceRequest request) {
+        ServiceLevel type = request.getType();
+        return (type == null ? noLevel : table[type.ordinal()]).handleRequest(request);
+    }
+
+    public SupportServiceItf getFirst() {
+        return first;
+    }
+
+    //the handler a request without a level is given to
+    public SupportServiceItf getHandlerWithoutLevel() {
+        return noLevel;
+    }
+
+    //the handler a request of this level is given to
+    public SupportServiceItf getHandler(ServiceLevel level) {
+        return table[level.ordinal()];
+    }
+}
+
+/*
+Handles whole arrays (or streams) of requests instead of one request at a time.
+
+The array is cut into chunks of CHUNK_SIZE requests, small enough to stay in cache. A chunk is partitioned by
+ServiceLevel with a counting sort and every slice goes to the handler the compiled chain (see
+CompiledSupportChain) gives that level: a LevelSupport resolves its slice in one loop without comparing
+levels or passing anything on, other handlers get their slice request by request.
+
+Without an executor all chunks are handled on the calling thread before handleAll returns. With one, every
+chunk is a task of its own - Executors.newVirtualThreadPerTaskExecutor() or a bounded pool both work.
+The callback, if any, is called for every request on the thread that handled it, right after it was handled.
+Requests are not handled in their original order. Either way an exception thrown by a handler or the callback
+doesn't escape handleAll, it completes the returned future exceptionally.
+ */
+class BatchSupportService {
+    private static final int CHUNK_SIZE = 16_384;
+    private static final ServiceLevel[] LEVELS = ServiceLevel.values();
+    //slot of the requests without a level
+    private static final int NO_LEVEL = LEVELS.length;
+
+    private final CompiledSupportChain chain;
+    private final Executor executor;
+
+    public BatchSupportService(SupportServiceItf first) {
+        this(first, null);
+    }
+
+    public BatchSupportService(SupportServiceItf first, Executor executor) {
+        this.chain = CompiledSupportChain.compile(first);
+        this.executor = executor;
+    }
+
+    //completes with outcomes[i] for requests[i] once every request was handled
+    public CompletableFuture<Outcome[]> handleAll(ServiceRequest[] requests,
+                                                  BiConsumer<ServiceRequest, Outcome> onComplete) {
+        Outcome[] outcomes = new Outcome[requests.length];
+        if (executor == null) {
+            int[] order = new int[Math.min(CHUNK_SIZE, requests.length)];
+            try {
+                for (int from = 0; from < requests.length; from += CHUNK_SIZE) {
+                    handleChunk(requests, from, Math.min(from + CHUNK_SIZE, requests.length), order, outcomes,
+                            onComplete);
+                }
+            } catch (RuntimeException e) {
+                //reported like a failed chunk with an executor
+                return CompletableFuture.failedFuture(e);
             }
+            return CompletableFuture.completedFuture(outcomes);
+        }
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < requests.length; from += CHUNK_SIZE) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(from + CHUNK_SIZE, requests.length);
+            chunks.add(CompletableFuture.runAsync(() -> handleChunk(requests, chunkFrom, chunkTo,
+                    new int[chunkTo - chunkFrom], outcomes, onComplete), executor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(done -> outcomes);
+    }
+
+    public CompletableFuture<Outcome[]> handleAll(Stream<ServiceRequest> requests,
+                                                  BiConsumer<ServiceRequest, Outcome> onComplete) {
+        return handleAll(requests.toArray(ServiceRequest[]::new), onComplete);
+    }
+
+    //partitions requests[from, to) by level into order, then hands every slice to its handler
+    private void handleChunk(ServiceRequest[] requests, int from, int to, int[] order, Outcome[] outcomes,
+                             BiConsumer<ServiceRequest, Outcome> onComplete) {
+        int[] starts = new int[NO_LEVEL + 2];
+        for (int i = from; i < to; i++) {
+            starts[slot(requests[i]) + 1]++;
+        }
+        for (int slot = 1; slot < starts.length; slot++) {
+            starts[slot] += starts[slot - 1];
+        }
+        int[] fill = Arrays.copyOf(starts, NO_LEVEL + 1);
+        for (int i = from; i < to; i++) {
+            order[fill[slot(requests[i])]++] = i;
+        }
+        for (int slot = 0; slot <= NO_LEVEL; slot++) {
+            handleSlice(slot, requests, order, starts[slot], starts[slot + 1], outcomes, onComplete);
         }
     }
-}
 
+    private void handleSlice(int slot, ServiceRequest[] requests, int[] order, int from, int to,
+                             Outcome[] outcomes, BiConsumer<ServiceRequest, Outcome> onComplete) {
+        SupportServiceItf handler = slot == NO_LEVEL ? chain.getHandlerWithoutLevel() : chain.getHandler(LEVELS[slot]);
+        if (slot != NO_LEVEL && handler instanceof LevelSupport levelSupport
+                && levelSupport.getLevel() == LEVELS[slot]) {
+            //every request of the slice is this handler's
+            Outcome handled = levelSupport.handled();
+            for (int i = from; i < to; i++) {
+                ServiceRequest request = requests[order[i]];
+                levelSupport.resolve(request);
+                outcomes[order[i]] = handled;
+                if (onComplete != null) {
+                    onComplete.accept(request, handled);
+                }
+            }
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            ServiceRequest request = requests[order[i]];
+            Outcome outcome = handler.handleRequest(request);
+            outcomes[order[i]] = outcome;
+            if (onComplete != null) {
+                onComplete.accept(request, outcome);
+            }
+        }
+    }
+
+    private static int slot(ServiceRequest request) {
+        ServiceLevel type = request.getType();
+        return type == null ? NO_LEVEL : type.ordinal();
+    }
+}
 
 public class ChainOfResponsibility {
 
@@ -203,5 +649,34 @@ public class ChainOfResponsibility {
         supportService.handleRequest(request);
         System.out.println(request.getConclusion());
 
+        //same results, looked up by level instead of walking the chain
+        supportService.compile();
+        request = new ServiceRequest();
+        request.setType(ServiceLevel.LEVEL_FOUR);
+        supportService.handleRequest(request);
+        System.out.println(request.getConclusion());
+
+        //without the director nobody takes an invalid request
+        managerSupport.setNext(null);
+        supportService.compile();
+        request = new ServiceRequest();
+        request.setType(ServiceLevel.INVALID_REQUEST);
+        System.out.println(supportService.handleRequest(request));
+
+        //a batch, partitioned by level, with a callback per request
+        ServiceRequest[] batch = new ServiceRequest[4];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new ServiceRequest();
+            batch[i].setType(ServiceLevel.values()[i]);
+        }
+        new BatchSupportService(frontDeskSupport).handleAll(batch,
+                (handled, outcome) -> System.out.println(handled.getType() + " :: " + outcome));
+
+        //immutable snapshot, reconfigured while it may be serving other threads
+        supportService.setHandler(SupportChain.of(frontDeskSupport, superVisorSupport, managerSupport));
+        supportService.updateChain(chain -> chain.withHandler(directorSupport));
+        request = new ServiceRequest();
+        request.setType(ServiceLevel.LEVEL_FOUR);
+        System.out.println(supportService.handleRequest(request) + " :: " + request.getConclusion());
     }
 }
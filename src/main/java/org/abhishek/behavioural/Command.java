@@ -20,11 +20,25 @@ Progress bars implementations.
 Creating multi-step wizards.
  */
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
 //Command interface
 interface ICommand {
     void execute();
 }
 
+//Command that switches its receiver on or off: of several queued for one receiver only the last one matters
+interface SwitchCommand extends ICommand {
+    Object getReceiver();
+
+    //state of the receiver after execute(), true for on / started
+    boolean switchesOn();
+}
+
 //Receiver
 class Light {
     public  void turnOn() {
@@ -49,7 +63,7 @@ class Fan {
 }
 
 //Concrete command classes
-class TurnOffLightCommand implements ICommand {
+class TurnOffLightCommand implements SwitchCommand {
 
     Light light;
 
@@ -62,10 +76,18 @@ class TurnOffLightCommand implements ICommand {
         System.out.println("Turning off light.");
         light.turnOff();
     }
+
+    public Object getReceiver() {
+        return light;
+    }
+
+    public boolean switchesOn() {
+        return false;
+    }
 }
 
 //Concrete command classes
-class TurnOnLightCommand implements ICommand {
+class TurnOnLightCommand implements SwitchCommand {
 
     Light light;
 
@@ -78,9 +100,17 @@ class TurnOnLightCommand implements ICommand {
         System.out.println("Turning on light.");
         light.turnOn();
     }
+
+    public Object getReceiver() {
+        return light;
+    }
+
+    public boolean switchesOn() {
+        return true;
+    }
 }
 //Concrete command classes
-class StopFanCommand implements ICommand {
+class StopFanCommand implements SwitchCommand {
 
     Fan fan;
 
@@ -93,9 +123,17 @@ class StopFanCommand implements ICommand {
         System.out.println("Fan is stopping");
         fan.stop();
     }
+
+    public Object getReceiver() {
+        return fan;
+    }
+
+    public boolean switchesOn() {
+        return false;
+    }
 }
 //Concrete command classes
-class StartFanCommand implements ICommand {
+class StartFanCommand implements SwitchCommand {
 
     Fan fan;
 
@@ -108,6 +146,14 @@ class StartFanCommand implements ICommand {
         System.out.println("Fan is starting");
         fan.start();
     }
+
+    public Object getReceiver() {
+        return fan;
+    }
+
+    public boolean switchesOn() {
+        return true;
+    }
 }
 
 //Invoker
@@ -127,6 +173,153 @@ class HomeAutomationRemote {
     }
 }
 
+/*
+Invoker that queues commands instead of running them on the spot, so a burst of button presses is coalesced
+before anything is executed.
+
+While queued, a SwitchCommand takes the place of the command pending for the same receiver (receivers are told
+apart by identity, never by equals): repeated StartFanCommands collapse into one, TurnOn then TurnOff leaves
+only TurnOff. Only pending commands are collapsed - once a batch runs, every command in it is executed, the
+queue doesn't assume anything about the state of a receiver, which may have been switched by someone else.
+Other commands are executed as queued.
+
+Pending commands run in the order their slots were taken, one batch per drain: on flush(), or, given an
+executor, on a task scheduled when the queue goes from empty to non-empty (like a ChatRoom mailbox). A command
+that throws is counted as failed and the rest of the batch still runs.
+ */
+class QueuedHomeAutomationRemote {
+
+    //commands in queueing order, with the slot of every receiver of a switch by identity
+    private static final class PendingCommands {
+        final ArrayList<ICommand> commands = new ArrayList<>();
+        final IdentityHashMap<Object, Integer> slots = new IdentityHashMap<>();
+
+        //the command it replaced, null if the receiver took a new slot
+        ICommand put(Object receiver, ICommand command) {
+            Integer slot = slots.putIfAbsent(receiver, commands.size());
+            if (slot == null) {
+                commands.add(command);
+                return null;
+            }
+            return commands.set(slot, command);
+        }
+    }
+
+    private final Executor executor;
+    private final Object executionLock = new Object();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private PendingCommands pending = new PendingCommands();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    //commands run on flush() only
+    public QueuedHomeAutomationRemote() {
+        this(null);
+    }
+
+    public QueuedHomeAutomationRemote(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void buttonPressed(ICommand command) {
+        boolean wasEmpty;
+        synchronized (this) {
+            wasEmpty = pending.commands.isEmpty();
+            if (command instanceof SwitchCommand switchCommand) {
+                //pressing the same switch again replaces it too
+                if (pending.put(switchCommand.getReceiver(), command) != null) {
+                    coalesced.increment();
+                }
+            } else {
+                //a slot per press, even for the same command object
+                pending.commands.add(command);
+            }
+        }
+        submitted.increment();
+        if (executor != null && wasEmpty && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    //runs everything pending on the calling thread, returns how many commands were executed
+    public int flush() {
+        synchronized (executionLock) {
+            PendingCommands batch;
+            synchronized (this) {
+                if (pending.commands.isEmpty()) {
+                    return 0;
+                }
+                batch = pending;
+                pending = new PendingCommands();
+            }
+            int count = 0;
+            for (ICommand command : batch.commands) {
+                try {
+                    command.execute();
+                    count++;
+                } catch (RuntimeException e) {
+                    failed.increment();
+                }
+            }
+            executed.add(count);
+            batches.increment();
+            return count;
+        }
+    }
+
+    //commands waiting to be executed, after coalescing
+    public synchronized int getQueueDepth() {
+        return pending.commands.size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    //commands that threw when executed
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    //commands dropped because a later one replaced them
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    //share of submitted commands that were never executed
+    public double getCoalescingRatio() {
+        long submittedCount = submitted.sum();
+        return submittedCount == 0 ? 0 : (double) coalesced.sum() / submittedCount;
+    }
+
+    private void drain() {
+        while (true) {
+            try {
+                flush();
+            } finally {
+                scheduled.set(false);
+            }
+            //a command may have been queued between the flush and clearing the flag
+            if (getQueueDepth() == 0 || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+}
+
 public class Command {
     public static void main(String[] args)
     {
@@ -157,5 +350,14 @@ public class Command {
 
         remote.setCommand(new StopFanCommand( bedRoomFan ));
         remote.buttonPressed();
+
+        QueuedHomeAutomationRemote queuedRemote = new QueuedHomeAutomationRemote();
+        queuedRemote.buttonPressed(new TurnOnLightCommand( livingRoomLight ));
+        queuedRemote.buttonPressed(new StartFanCommand( bedRoomFan ));
+        queuedRemote.buttonPressed(new StartFanCommand( bedRoomFan ));
+        queuedRemote.buttonPressed(new TurnOffLightCommand( livingRoomLight ));  //replaces the TurnOn
+        queuedRemote.flush();
+        System.out.println(queuedRemote.getExecutedCount() + " of " + queuedRemote.getSubmittedCount()
+                + " commands executed");
     }
 }
@@ -0,0 +1,58 @@
+package org.abhishek.behavioural;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Lock-free latency histogram with power-of-two buckets: bucket i counts values in [2^(i-1), 2^i) nanoseconds.
+Recording is one array increment; percentiles are reported as the upper bound of their bucket, i.e. with at
+most 2x error, which is enough to tell a 1 us delay from a 1 ms one.
+ */
+class LatencyHistogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final LongAdder total = new LongAdder();
+
+    public void record(long nanos) {
+        int bucket = nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+        buckets.incrementAndGet(Math.min(bucket, 63));
+        total.increment();
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    //e.g. percentile(0.99), 0 when nothing was recorded
+    public long percentile(double fraction) {
+        long count = 0;
+        for (int i = 0; i < 64; i++) {
+            count += buckets.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < 64; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return i == 0 ? 0 : 1L << Math.min(i, 62);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public void reset() {
+        for (int i = 0; i < 64; i++) {
+            buckets.set(i, 0);
+        }
+        total.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "p50=" + percentile(0.5) + "ns p99=" + percentile(0.99) + "ns p999=" + percentile(0.999)
+                + "ns max=" + percentile(1.0) + "ns";
+    }
+}
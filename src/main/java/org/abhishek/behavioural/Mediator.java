@@ -24,28 +24,491 @@ Example:
 3) java.util.concurrent.Executor
  */
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
 
 interface IChatRoom {
-    void sendMessage(String msg, String userId);
+    //false when no user with that id is in the room
+    boolean sendMessage(String msg, String userId);
 
     void addUser(User user);
+
+    //false when no user with that id is in the room
+    boolean removeUser(String userId);
+}
+
+//Rooms inside the chat room: members of a group get every message broadcast to it
+interface IGroupChatRoom extends IChatRoom {
+    void joinGroup(String groupId, String userId);
+
+    void leaveGroup(String groupId, String userId);
+
+    //returns at once; completes with the number of members the message was queued for
+    CompletableFuture<Integer> broadcast(String msg, String groupId);
 }
 
-class ChatRoom implements IChatRoom {
+/*
+One-to-one messages are delivered on the sender's thread. Group broadcasts are not: the fan-out runs on a
+virtual thread and puts the message in the bounded mailbox of every member. A mailbox is drained in batches
+by a virtual thread scheduled when the mailbox goes from empty to non-empty, so idle members cost no thread.
+A full mailbox drops the message (counted) instead of slowing down the broadcast, and a batch whose delivery
+throws is counted as failed while the mailbox carries on with the next one.
+
+With a MessageLog every one-to-one message is appended to the log first, also when the recipient isn't in the
+room. The read position of the recipient in the log moves past every message delivered to it, and back to
+any message that found it absent; removing a user leaves it where it is. Adding a user replays what was sent
+to it since its read position (from the start of the log for a user never seen before). The read positions
+are kept by the log, so they survive a restart and a returning user gets only what it missed. A message sent
+while the user is being removed or added, or delivered after the last flush of the read positions before a
+crash, may be delivered twice, never lost.
+A replay scans every record behind the read position - see MessageLog.
+ */
+class ChatRoom implements IGroupChatRoom {
+
+    private static final int DEFAULT_MAILBOX_CAPACITY = 1024;
+    private static final int DELIVERY_BATCH_SIZE = 64;
+    private static final int REPLAY_BATCH_SIZE = 1024;
+
+    private final UserRegistry users = new UserRegistry();
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Mailbox>> groups = new ConcurrentHashMap<>();
+    private final Executor delivery;
+    private final int mailboxCapacity;
+    private final MessageLog log;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram queueingDelay = new LatencyHistogram();
+
+    public ChatRoom() {
+        this(Executors.newVirtualThreadPerTaskExecutor(), DEFAULT_MAILBOX_CAPACITY);
+    }
+
+    public ChatRoom(Executor delivery, int mailboxCapacity) {
+        this(delivery, mailboxCapacity, null);
+    }
+
+    public ChatRoom(MessageLog log) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), DEFAULT_MAILBOX_CAPACITY, log);
+    }
+
+    public ChatRoom(Executor delivery, int mailboxCapacity, MessageLog log) {
+        this.delivery = delivery;
+        this.mailboxCapacity = mailboxCapacity;
+        this.log = log;
+    }
+
+    private static final class Envelope {
+        final String msg;
+        final long enqueuedAt;
+
+        Envelope(String msg, long enqueuedAt) {
+            this.msg = msg;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
 
-    private Map<String, User> usersMap = new HashMap<>();
+    private final class Mailbox {
+        private final User user;
+        private final ConcurrentLinkedQueue<Envelope> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Mailbox(User user) {
+            this.user = user;
+        }
+
+        boolean offer(Envelope envelope) {
+            if (size.incrementAndGet() > mailboxCapacity) {
+                size.decrementAndGet();
+                dropped.increment();
+                return false;
+            }
+            queue.offer(envelope);
+            if (scheduled.compareAndSet(false, true)) {
+                delivery.execute(this::drain);
+            }
+            return true;
+        }
+
+        private void drain() {
+            List<String> batch = new ArrayList<>(DELIVERY_BATCH_SIZE);
+            while (true) {
+                Envelope envelope;
+                while (batch.size() < DELIVERY_BATCH_SIZE && (envelope = queue.poll()) != null) {
+                    queueingDelay.record(System.nanoTime() - envelope.enqueuedAt);
+                    batch.add(envelope.msg);
+                }
+                if (!batch.isEmpty()) {
+                    size.addAndGet(-batch.size());
+                    if (!closed) {
+                        try {
+                            user.receiveAll(batch);
+                        } catch (RuntimeException e) {
+                            //a failing user loses the batch, the mailbox keeps draining
+                            failed.add(batch.size());
+                        }
+                    }
+                    batch.clear();
+                    continue;
+                }
+                scheduled.set(false);
+                //a message may have arrived between the last poll and clearing the flag
+                if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
 
     @Override
-    public void sendMessage(String msg, String userId) {
-        User u = usersMap.get(userId);
+    public boolean sendMessage(String msg, String userId) {
+        long position = -1;
+        if (log != null) {
+            try {
+                position = log.append(userId, msg);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        User u = users.get(userId);
+        if (u == null && log != null) {
+            //replayed when the user is added; if it was added meanwhile its replay may have started too early
+            try {
+                log.rewindReadPosition(userId, position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            u = users.get(userId);
+        }
+        if (u == null) {
+            return false;
+        }
         u.receive(msg);
+        if (log != null) {
+            log.advanceReadPosition(userId, log.getNextPosition(position));
+        }
+        return true;
     }
 
     @Override
     public void addUser(User user) {
-        this.usersMap.put(user.getId(), user);
+        users.put(user);
+        if (log != null) {
+            replay(user);
+        }
+    }
+
+    @Override
+    public boolean removeUser(String userId) {
+        //the read position stays put: messages appended but not delivered yet are replayed on the next add
+        if (log != null && users.get(userId) != null) {
+            try {
+                log.flushReadPositions();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Mailbox mailbox = mailboxes.remove(userId);
+        if (mailbox != null) {
+            mailbox.closed = true;
+        }
+        return users.remove(userId) != null;
+    }
+
+    @Override
+    public void joinGroup(String groupId, String userId) {
+        User user = users.get(userId);
+        if (user == null) {
+            throw new IllegalArgumentException("No user with id ::" + userId);
+        }
+        Mailbox mailbox = mailboxes.computeIfAbsent(userId, id -> new Mailbox(user));
+        groups.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(mailbox);
+    }
+
+    @Override
+    public void leaveGroup(String groupId, String userId) {
+        Set<Mailbox> members = groups.get(groupId);
+        Mailbox mailbox = mailboxes.get(userId);
+        if (members != null && mailbox != null) {
+            members.remove(mailbox);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> broadcast(String msg, String groupId) {
+        Set<Mailbox> members = groups.get(groupId);
+        if (members == null) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            Envelope envelope = new Envelope(msg, System.nanoTime());
+            int queued = 0;
+            for (Mailbox mailbox : members) {
+                if (mailbox.closed) {
+                    members.remove(mailbox);
+                } else if (mailbox.offer(envelope)) {
+                    queued++;
+                }
+            }
+            return queued;
+        }, delivery);
+    }
+
+    //delivers the logged messages for user from its last read position, returns how many
+    public int replay(User user) {
+        if (log == null) {
+            return 0;
+        }
+        long position = log.getReadPosition(user.getId(), log.getStartPosition());
+        long end = log.getEndPosition();
+        int replayed = 0;
+        List<String> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+        while (position < end) {
+            List<MessageLog.Entry> entries = log.read(user.getId(), position, REPLAY_BATCH_SIZE, end);
+            if (entries.isEmpty()) {
+                break;
+            }
+            for (MessageLog.Entry entry : entries) {
+                batch.add(entry.getMessage());
+            }
+            user.receiveAll(batch);
+            replayed += batch.size();
+            batch.clear();
+            position = entries.get(entries.size() - 1).getNextPosition();
+        }
+        log.advanceReadPosition(user.getId(), end);
+        return replayed;
+    }
+
+    public int getUserCount() {
+        return users.size();
+    }
+
+    //group messages dropped because a mailbox was full
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    //group messages lost because receiveAll threw
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    //time group messages spent in mailboxes before delivery
+    public LatencyHistogram getQueueingDelay() {
+        return queueingDelay;
+    }
+}
+
+/*
+Concurrent user id -> User map, sharded to keep writers of different users apart and laid out to stay small
+with millions of users.
+
+Every shard is an open addressing table (linear probing) with keys and users in one Object[] - no entry object
+per user, which is most of the memory a HashMap/ConcurrentHashMap spends per mapping. Writers take the
+shard's write lock; readers go through an optimistic read of the StampedLock and only fall back to the read
+lock if a writer interfered, so lookups normally take no lock at all.
+ */
+class UserRegistry {
+
+    private static final int DEFAULT_SHARDS = 64;
+
+    private static final class Shard {
+        private final StampedLock lock = new StampedLock();
+        //[id0, user0, id1, user1, ...], kept at most half full
+        private Object[] table = new Object[2 * 16];
+        private int size;
+
+        User get(String id, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            User user = find(table, id, hash);
+            if (lock.validate(stamp)) {
+                return user;
+            }
+            stamp = lock.readLock();
+            try {
+                return find(table, id, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        //may run against a table being modified, validate the stamp before trusting the result
+        private static User find(Object[] table, String id, int hash) {
+            int slots = table.length >> 1;
+            int mask = slots - 1;
+            for (int probe = 0, i = hash & mask; probe < slots; probe++, i = (i + 1) & mask) {
+                Object key = table[i << 1];
+                if (key == null) {
+                    return null;
+                }
+                if (id.equals(key)) {
+                    Object user = table[(i << 1) + 1];
+                    return user instanceof User ? (User) user : null;
+                }
+            }
+            return null;
+        }
+
+        User put(String id, int hash, User user) {
+            long stamp = lock.writeLock();
+            try {
+                if ((size + 1) * 2 > table.length >> 1) {
+                    resize(table.length << 1);
+                }
+                int mask = (table.length >> 1) - 1;
+                for (int i = hash & mask; ; i = (i + 1) & mask) {
+                    Object key = table[i << 1];
+                    if (key == null) {
+                        table[i << 1] = id;
+                        table[(i << 1) + 1] = user;
+                        size++;
+                        return null;
+                    }
+                    if (id.equals(key)) {
+                        User previous = (User) table[(i << 1) + 1];
+                        table[(i << 1) + 1] = user;
+                        return previous;
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        User remove(String id, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = (table.length >> 1) - 1;
+                int i = hash & mask;
+                while (true) {
+                    Object key = table[i << 1];
+                    if (key == null) {
+                        return null;
+                    }
+                    if (id.equals(key)) {
+                        break;
+                    }
+                    i = (i + 1) & mask;
+                }
+                User removed = (User) table[(i << 1) + 1];
+                //backward shift deletion, keeps every remaining key reachable from its home slot
+                int hole = i;
+                for (int j = (hole + 1) & mask; table[j << 1] != null; j = (j + 1) & mask) {
+                    int home = spread(table[j << 1].hashCode()) & mask;
+                    if (((j - home) & mask) >= ((j - hole) & mask)) {
+                        table[hole << 1] = table[j << 1];
+                        table[(hole << 1) + 1] = table[(j << 1) + 1];
+                        hole = j;
+                    }
+                }
+                table[hole << 1] = null;
+                table[(hole << 1) + 1] = null;
+                size--;
+                return removed;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void resize(int length) {
+            Object[] old = table;
+            Object[] resized = new Object[length];
+            int mask = (length >> 1) - 1;
+            for (int k = 0; k < old.length; k += 2) {
+                Object key = old[k];
+                if (key != null) {
+                    int i = spread(key.hashCode()) & mask;
+                    while (resized[i << 1] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    resized[i << 1] = key;
+                    resized[(i << 1) + 1] = old[k + 1];
+                }
+            }
+            table = resized;
+        }
+    }
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int shardShift;
+
+    public UserRegistry() {
+        this(DEFAULT_SHARDS);
+    }
+
+    //shardCount is rounded up to a power of two
+    public UserRegistry(int shardCount) {
+        int count = shardCount <= 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+        shardMask = count - 1;
+        //as many of the upper bits as there are shards, 32 for a single shard: masked to 0 below
+        shardShift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    public User get(String id) {
+        int hash = spread(id.hashCode());
+        return shard(hash).get(id, hash);
+    }
+
+    //returns the user previously registered with the same id
+    public User put(User user) {
+        int hash = spread(user.getId().hashCode());
+        return shard(hash).put(user.getId(), hash, user);
+    }
+
+    public User remove(String id) {
+        int hash = spread(id.hashCode());
+        return shard(hash).remove(id, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    //the upper log2(shard count) bits pick the shard, the lower bits the slot inside it
+    private Shard shard(int hash) {
+        return shards[(hash >>> shardShift) & shardMask];
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        return h ^ (h >>> 13);
     }
 }
 
@@ -65,6 +528,13 @@ abstract class User {
 
     public abstract void receive(String msg);
 
+    //group messages are delivered in batches, override to handle a batch at once
+    public void receiveAll(List<String> msgs) {
+        for (String msg : msgs) {
+            receive(msg);
+        }
+    }
+
     public IChatRoom getMediator() {
         return mediator;
     }
@@ -87,7 +557,9 @@ class ChatUser extends User {
     @Override
     public void send(String msg, String userId) {
         System.out.println(this.getName() + " :: Sending Message : " + msg);
-        getMediator().sendMessage(msg, userId);
+        if (!getMediator().sendMessage(msg, userId)) {
+            System.out.println(this.getName() + " :: No user with id : " + userId);
+        }
     }
 
     @Override
@@ -99,7 +571,7 @@ class ChatUser extends User {
 
 public class Mediator {
 
-    public static void main(String[] args)
+    public static void main(String[] args) throws InterruptedException, IOException
     {
         IChatRoom chatroom = new ChatRoom();
 
@@ -115,5 +587,31 @@ public class Mediator {
 
         user1.send("Hello brian", "2");
         user2.send("Hey buddy", "1");
+
+        chatroom.removeUser("4");
+        user1.send("Are you there David?", "4");
+
+        ChatRoom groupRoom = new ChatRoom();
+        for (User user : new User[]{user1, user2, user3}) {
+            groupRoom.addUser(user);
+            groupRoom.joinGroup("friends", user.getId());
+        }
+        int queued = groupRoom.broadcast("Hello friends", "friends").join();
+        System.out.println("Broadcast queued for " + queued + " members");
+        Thread.sleep(100);  //give the mailboxes time to deliver
+
+        Path logDir = Files.createTempDirectory("chat-log");
+        try (MessageLog log = new MessageLog(logDir, 1 << 20, 64L << 20, Duration.ofDays(7))) {
+            ChatRoom loggedRoom = new ChatRoom(log);
+            User alex = new ChatUser(loggedRoom, "1", "Alex");
+            User brian = new ChatUser(loggedRoom, "2", "Brian");
+            loggedRoom.addUser(alex);
+            loggedRoom.addUser(brian);
+
+            loggedRoom.removeUser("2");
+            alex.send("Brian, are you offline?", "2");
+            alex.send("Call me when you are back", "2");
+            loggedRoom.addUser(brian);  //replays both messages
+        }
     }
 }
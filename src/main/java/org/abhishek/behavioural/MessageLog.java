@@ -0,0 +1,375 @@
+package org.abhishek.behavioural;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/*
+Append-only log of chat messages, kept in memory-mapped segment files so that appending and replaying are
+plain memory copies - no system call per message.
+
+A position in the log is a long: segment base + offset inside the segment. Every record is
+    int    length of the record after this field
+    long   append time, epoch millis
+    short  recipient length, recipient id bytes (UTF-8)
+    bytes  message (UTF-8), the rest of the record
+A segment is rolled when the next record doesn't fit; a zero length marks the unused tail of a segment.
+
+Appends are serialized by a lock; readers never lock, they read up to the last committed position, which is
+published through a volatile write after the record is complete.
+
+Retention drops whole segments (never the active one), oldest first, while the log is over maxBytes or the
+segment's last append is older than maxAge. Positions that fall before the oldest segment read from its start.
+
+Reading for one recipient is a linear scan: every record from the given position on is visited, whoever it is
+for, so a replay costs the size of the log behind it, not the number of messages the recipient gets. Keep the
+read positions moving (below) so replays start close to the end.
+
+The log also keeps a read position per recipient - where its next replay starts. Positions move forward past
+delivered messages and back to undelivered ones. They are kept in memory and written to a file in the log
+directory (atomically, through a temp file) on flushReadPositions(), on every segment roll (by the sender that
+rolled, after releasing the append lock), on close() and on every move back, and read back when the log is
+reopened. A crash loses at most the forward moves since the last flush, which then replays those messages
+again.
+ */
+class MessageLog implements AutoCloseable {
+
+    private static final String SUFFIX = ".log";
+    private static final String READ_POSITIONS = "read-positions";
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Short.BYTES;
+
+    private static final class Segment {
+        final long base;
+        final Path file;
+        final MappedByteBuffer buffer;
+        volatile long lastAppendMillis;
+
+        Segment(long base, Path file, MappedByteBuffer buffer, long lastAppendMillis) {
+            this.base = base;
+            this.file = file;
+            this.buffer = buffer;
+            this.lastAppendMillis = lastAppendMillis;
+        }
+    }
+
+    //a replayed message and the position right after it
+    static final class Entry {
+        private final String recipient;
+        private final String message;
+        private final long timestampMillis;
+        private final long nextPosition;
+
+        Entry(String recipient, String message, long timestampMillis, long nextPosition) {
+            this.recipient = recipient;
+            this.message = message;
+            this.timestampMillis = timestampMillis;
+            this.nextPosition = nextPosition;
+        }
+
+        public String getRecipient() {
+            return recipient;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public long getNextPosition() {
+            return nextPosition;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final Duration maxAge;
+
+    private final Object appendLock = new Object();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private Segment active;
+    private volatile long committed;
+
+    private final ConcurrentHashMap<String, Long> readPositions = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    //maxBytes <= 0 or maxAge == null disables that retention rule
+    public MessageLog(Path directory, int segmentBytes, long maxBytes, Duration maxAge) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+        Files.createDirectories(directory);
+        recover();
+        loadReadPositions();
+    }
+
+    public long append(String recipient, String message) throws IOException {
+        byte[] recipientBytes = recipient.getBytes(StandardCharsets.UTF_8);
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        int recordSize = HEADER_SIZE + recipientBytes.length + messageBytes.length;
+        if (recordSize > segmentBytes || recipientBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Message too large for a segment :: " + recordSize);
+        }
+
+        long position;
+        boolean rolled = false;
+        synchronized (appendLock) {
+            int offset = (int) (committed - active.base);
+            if (offset + recordSize > segmentBytes) {
+                roll();
+                rolled = true;
+                offset = 0;
+            }
+            long now = System.currentTimeMillis();
+            MappedByteBuffer buffer = active.buffer;
+            buffer.putLong(offset + Integer.BYTES, now);
+            buffer.putShort(offset + Integer.BYTES + Long.BYTES, (short) recipientBytes.length);
+            buffer.put(offset + HEADER_SIZE, recipientBytes);
+            buffer.put(offset + HEADER_SIZE + recipientBytes.length, messageBytes);
+            buffer.putInt(offset, recordSize - Integer.BYTES);
+            active.lastAppendMillis = now;
+
+            position = active.base + offset;
+            committed = position + recordSize;
+        }
+        if (rolled) {
+            //outside the append lock: other senders go on appending while the positions are written
+            flushReadPositions();
+        }
+        return position;
+    }
+
+    //messages for recipient from position on, at most max of them
+    public List<Entry> read(String recipient, long position, int max) {
+        return read(recipient, position, max, committed);
+    }
+
+    //same, stopping at end
+    public List<Entry> read(String recipient, long position, int max, long end) {
+        List<Entry> entries = new ArrayList<>();
+        end = Math.min(end, committed);
+        long current = Math.max(position, getStartPosition());
+
+        while (current < end && entries.size() < max) {
+            var floor = segments.floorEntry(current);
+            if (floor == null) {
+                break;
+            }
+            Segment segment = floor.getValue();
+            int offset = (int) (current - segment.base);
+            int length = offset + Integer.BYTES <= segmentBytes ? segment.buffer.getInt(offset) : 0;
+            if (length == 0) {
+                //unused tail, continue with the next segment
+                Long next = segments.higherKey(segment.base);
+                if (next == null) {
+                    break;
+                }
+                current = next;
+                continue;
+            }
+
+            long timestamp = segment.buffer.getLong(offset + Integer.BYTES);
+            int recipientLength = segment.buffer.getShort(offset + Integer.BYTES + Long.BYTES);
+            long next = current + Integer.BYTES + length;
+            if (matches(segment.buffer, offset + HEADER_SIZE, recipientLength, recipient)) {
+                byte[] messageBytes = new byte[length - Long.BYTES - Short.BYTES - recipientLength];
+                segment.buffer.get(offset + HEADER_SIZE + recipientLength, messageBytes);
+                entries.add(new Entry(recipient, new String(messageBytes, StandardCharsets.UTF_8), timestamp, next));
+            }
+            current = next;
+        }
+        return entries;
+    }
+
+    //position right after the record at position, e.g. the one append returned
+    public long getNextPosition(long position) {
+        var floor = segments.floorEntry(position);
+        if (floor == null) {
+            return getStartPosition();  //dropped by retention
+        }
+        Segment segment = floor.getValue();
+        return position + Integer.BYTES + segment.buffer.getInt((int) (position - segment.base));
+    }
+
+    //where the next replay for recipient starts, defaultPosition for a recipient never recorded
+    public long getReadPosition(String recipient, long defaultPosition) {
+        return readPositions.getOrDefault(recipient, defaultPosition);
+    }
+
+    //moves the read position of recipient forward to position, never back
+    public void advanceReadPosition(String recipient, long position) {
+        readPositions.merge(recipient, position, Math::max);
+    }
+
+    /*
+    Moves the read position of recipient back to position, e.g. of a message it didn't get, never forward.
+    Flushes when it did move back: the usual case - a recipient that is away, already behind position - writes
+    nothing, and a move back that a crash would lose could lose the message.
+     */
+    public void rewindReadPosition(String recipient, long position) throws IOException {
+        Long previous = readPositions.get(recipient);
+        readPositions.merge(recipient, position, Math::min);
+        if (previous == null || previous > position) {
+            flushReadPositions();
+        }
+    }
+
+    public void flushReadPositions() throws IOException {
+        synchronized (flushLock) {
+            Path target = directory.resolve(READ_POSITIONS);
+            Path temp = Files.createTempFile(directory, READ_POSITIONS, ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                    out.writeInt(readPositions.size());
+                    for (Map.Entry<String, Long> entry : readPositions.entrySet()) {
+                        out.writeUTF(entry.getKey());
+                        out.writeLong(entry.getValue());
+                    }
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        }
+    }
+
+    //position of the oldest retained message
+    public long getStartPosition() {
+        return segments.firstKey();
+    }
+
+    //position the next message will be appended at
+    public long getEndPosition() {
+        return committed;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public void applyRetention() throws IOException {
+        synchronized (appendLock) {
+            long now = System.currentTimeMillis();
+            while (segments.size() > 1) {
+                Segment oldest = segments.firstEntry().getValue();
+                boolean overSize = maxBytes > 0 && (long) segments.size() * segmentBytes > maxBytes;
+                boolean tooOld = maxAge != null && now - oldest.lastAppendMillis > maxAge.toMillis();
+                if (!overSize && !tooOld) {
+                    return;
+                }
+                segments.remove(oldest.base);
+                Files.deleteIfExists(oldest.file);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            active.buffer.force();
+        }
+        flushReadPositions();
+    }
+
+    private static boolean matches(MappedByteBuffer buffer, int offset, int length, String recipient) {
+        //ids are compared as ASCII when possible to avoid decoding every record
+        if (length != recipient.length()) {
+            return recipient.getBytes(StandardCharsets.UTF_8).length == length
+                    && decode(buffer, offset, length).equals(recipient);
+        }
+        for (int i = 0; i < length; i++) {
+            char c = recipient.charAt(i);
+            if (c >= 0x80) {
+                return decode(buffer, offset, length).equals(recipient);
+            }
+            if (buffer.get(offset + i) != (byte) c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(MappedByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void roll() throws IOException {
+        active.buffer.force();
+        active = openSegment(active.base + segmentBytes);
+        committed = active.base;
+        applyRetention();
+    }
+
+    private Segment openSegment(long base) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", base, SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            //the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            Segment segment = new Segment(base, file, buffer, Files.getLastModifiedTime(file).toMillis());
+            segments.put(base, segment);
+            return segment;
+        }
+    }
+
+    //reopens the segments left by a previous run and finds the end of the last one
+    private void recover() throws IOException {
+        List<Long> bases = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .forEach(name -> bases.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length()))));
+        }
+        bases.sort(null);
+        if (bases.isEmpty()) {
+            bases.add(0L);
+        }
+        for (long base : bases) {
+            active = openSegment(base);
+        }
+
+        int offset = 0;
+        while (offset + Integer.BYTES <= segmentBytes) {
+            int length = active.buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            offset += Integer.BYTES + length;
+        }
+        committed = active.base + offset;
+    }
+
+    private void loadReadPositions() throws IOException {
+        Path file = directory.resolve(READ_POSITIONS);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                readPositions.put(in.readUTF(), in.readLong());
+            }
+        }
+    }
+}
@@ -24,18 +24,111 @@ ConcreteObserver – concrete Observer implementations.
 
 */
 
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
 
 class Message{
+    private final String topic;
     private final String message;
+    //UTF-8 encoding of message, made on first use and shared by every observer; volatile because a ByteBuffer
+    //has mutable position and limit, read through a data race another thread could see them half initialized
+    private volatile ByteBuffer payload;
 
     public Message(String msg) {
+        this(null, msg);
+    }
+
+    //topic routes the message to the observers subscribed to it, see MessagePublisher.attach(String, Observer)
+    public Message(String topic, String msg) {
+        this.topic = topic;
         this.message = msg;
     }
 
+    public String getTopic() {
+        return topic;
+    }
+
     public String getMessage() {
         return message;
     }
+
+    //read-only view of the UTF-8 encoded message, with its own position so every caller can consume it
+    public ByteBuffer getPayload() {
+        ByteBuffer encoded = payload;
+        if (encoded == null) {
+            //two threads may both encode, each publishes a complete buffer with the same bytes
+            encoded = ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+            payload = encoded;
+        }
+        return encoded.duplicate();
+    }
+
+    //writes the encoded message without copying it to an intermediate array
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = getPayload();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
+
+/*
+Message whose content is already encoded: a read-only slice of a (typically direct) buffer, so one payload
+read from or destined to a channel is fanned out to every observer and written out again without copying.
+The String is only decoded if an observer asks for it, and then once.
+ */
+class BufferMessage extends Message {
+    private final ByteBuffer payload;
+    private String decoded;
+
+    //payload from its position to its limit, UTF-8; later changes to payload's position or limit don't matter
+    public BufferMessage(String topic, ByteBuffer payload) {
+        super(topic, null);
+        this.payload = payload.slice().asReadOnlyBuffer();
+    }
+
+    //encodes msg once into a direct buffer
+    public static BufferMessage encode(String topic, String msg) {
+        byte[] bytes = msg.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return new BufferMessage(topic, buffer);
+    }
+
+    @Override
+    public String getMessage() {
+        String message = decoded;
+        if (message == null) {
+            message = StandardCharsets.UTF_8.decode(payload.duplicate()).toString();
+            decoded = message;
+        }
+        return message;
+    }
+
+    @Override
+    public ByteBuffer getPayload() {
+        return payload.duplicate();
+    }
 }
 
 interface Subject {
@@ -43,38 +136,809 @@ interface Subject {
     void attach(Observer observer);
     void detach(Observer observer);
     void notify(Message message);
+
+    //batch publishing, every observer gets the whole batch in one update(List) call
+    default void notify(Message[] messages) {
+        notifyAll(Arrays.asList(messages));
+    }
+
+    default void notifyAll(List<Message> messages) {
+        for (Message message : messages) {
+            notify(message);
+        }
+    }
 }
 
+/*
+Copy-on-write publisher.
+
+The observers live in an array that is never modified once published: attach/detach build a new array under
+a lock and swap it in, notify reads the current array once and walks it. So notify takes no lock, allocates
+nothing, and observers may attach or detach (from other threads, or from inside update()) while a notify is
+running. A notify already in progress keeps delivering to the observers it started with.
+Attach/detach cost O(number of observers), which is fine as long as they are much rarer than notify.
+
+Observers attached without a topic get every message. Observers attached to a topic, optionally with a
+predicate, are kept in a per-topic array of the same kind, so a message only costs one index lookup plus the
+observers of its own topic, however many subscribers the other topics have.
+
+Instrumentation is off by default and then costs notify one volatile read and null check. Once enabled every
+update() is timed per observer (see ObserverMetrics); an observer over the latency budget too often can be
+quarantined: swapped for an AsyncObserver lane so it stops delaying the others. Detaching the observer
+removes its lane and shuts it down without waiting for it, so detach doesn't block on the queued updates and
+an observer may detach itself from inside update() on its lane.
+
+attachWeak subscribes without keeping the observer alive: once it is garbage collected, its entry goes to a
+ReferenceQueue. notify only polls that queue (no lock when it is empty) and, when something was cleared,
+rebuilds the arrays without the dead entries. Forgotten subscribers then cost neither heap nor notify time.
+ */
 class MessagePublisher implements Subject {
 
-    private final ArrayList<Observer> observerList;
+    private static final Observer[] NO_OBSERVERS = new Observer[0];
+    private static final int QUARANTINE_CAPACITY = 1024;
+
+    private final Object lock = new Object();
+    private volatile Observer[] observers = NO_OBSERVERS;
+    private final ConcurrentHashMap<String, Observer[]> topicObservers = new ConcurrentHashMap<>();
+    private volatile Instrumentation instrumentation;
+    private final ReferenceQueue<Observer> cleared = new ReferenceQueue<>();
 
     public MessagePublisher() {
-        observerList = new ArrayList<>();
     }
 
     @Override
     public void attach(Observer observer) {
-        observerList.add(observer);
+        synchronized (lock) {
+            observers = append(observers, observer);
+        }
     }
 
     @Override
     public void detach(Observer observer) {
-        observerList.remove(observer);
+        Observer removed;
+        synchronized (lock) {
+            Observer[] current = observers;
+            int i = indexOf(current, observer);
+            if (i < 0) {
+                return;
+            }
+            removed = current[i];
+            observers = without(current, i);
+        }
+        closeIfQuarantined(removed);
+    }
+
+    //only messages of this topic
+    public void attach(String topic, Observer observer) {
+        topicObservers.compute(topic, (t, current) -> append(current == null ? NO_OBSERVERS : current, observer));
+    }
+
+    //only messages of this topic that match the filter
+    public void attach(String topic, Predicate<Message> filter, Observer observer) {
+        attach(topic, new FilteringObserver(filter, observer));
+    }
+
+    public void detach(String topic, Observer observer) {
+        Observer[] removed = new Observer[1];
+        topicObservers.computeIfPresent(topic, (t, current) -> {
+            int i = indexOf(current, observer);
+            if (i < 0) {
+                return current;
+            }
+            removed[0] = current[i];
+            Observer[] updated = without(current, i);
+            return updated.length == 0 ? null : updated;
+        });
+        closeIfQuarantined(removed[0]);
+    }
+
+    /*
+    Holds observer weakly: it is updated while something else references it and dropped once it is collected.
+    Keep a reference to lambdas and method references attached this way, nothing else does.
+     */
+    public void attachWeak(Observer observer) {
+        attach(new WeakObserver(observer, cleared));
+    }
+
+    public void attachWeak(String topic, Observer observer) {
+        attach(topic, new WeakObserver(observer, cleared));
+    }
+
+    //observer is updated on its own thread, see AsyncObserver; detach the returned AsyncObserver to unsubscribe
+    public AsyncObserver attachAsync(Observer observer, int capacity, WaitStrategy waitStrategy,
+                                     BackpressurePolicy backpressure) {
+        AsyncObserver async = new AsyncObserver(observer, capacity, waitStrategy, backpressure);
+        attach(async);
+        return async;
+    }
+
+    /*
+    Times every update() from now on. An update longer than budget counts against its observer; after
+    quarantineAfter of them the observer is moved to an AsyncObserver lane that drops its oldest messages when
+    full. quarantineAfter <= 0 only flags slow observers. Enabling again starts new metrics.
+     */
+    public void enableInstrumentation(Duration budget, int quarantineAfter) {
+        instrumentation = new Instrumentation(budget.toNanos(), quarantineAfter);
+    }
+
+    //quarantined observers stay on their lanes
+    public void disableInstrumentation() {
+        instrumentation = null;
+    }
+
+    //metrics of the observer (however it was attached), null if it wasn't updated since instrumentation was enabled
+    public ObserverMetrics getMetrics(Observer observer) {
+        Instrumentation instrumented = instrumentation;
+        if (instrumented == null) {
+            return null;
+        }
+        for (ObserverMetrics metrics : instrumented.metrics.values()) {
+            if (metrics.isFor(observer)) {
+                return metrics;
+            }
+        }
+        return null;
+    }
+
+    public List<ObserverMetrics> getMetrics() {
+        Instrumentation instrumented = instrumentation;
+        return instrumented == null ? List.of() : List.copyOf(instrumented.metrics.values());
+    }
+
+    //observers attached, with and without topic; collected weak observers count until the next notify
+    public int getObserverCount() {
+        int count = observers.length;
+        for (Observer[] subscribed : topicObservers.values()) {
+            count += subscribed.length;
+        }
+        return count;
     }
 
     @Override
     public void notify(Message message) {
-        for(Observer observer: observerList) {
-            observer.update(message);
+        if (cleared.poll() != null) {
+            pruneCleared();
+        }
+        Instrumentation instrumented = instrumentation;
+        for (Observer observer : observers) {
+            if (instrumented == null) {
+                observer.update(message);
+            } else {
+                instrumented.update(observer, message);
+            }
         }
+        notifyTopic(message, instrumented);
+    }
 
+    //one pass over the observers for the whole batch instead of one per message
+    @Override
+    public void notifyAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (cleared.poll() != null) {
+            pruneCleared();
+        }
+        List<Message> batch = Collections.unmodifiableList(messages);
+        Instrumentation instrumented = instrumentation;
+        for (Observer observer : observers) {
+            if (instrumented == null) {
+                observer.update(batch);
+            } else {
+                instrumented.update(observer, batch);
+            }
+        }
+        //messages of a batch may belong to different topics, topic observers get them one by one
+        if (!topicObservers.isEmpty()) {
+            for (Message message : batch) {
+                notifyTopic(message, instrumented);
+            }
+        }
+    }
+
+    private void notifyTopic(Message message, Instrumentation instrumented) {
+        String topic = message.getTopic();
+        if (topic == null) {
+            return;
+        }
+        Observer[] subscribed = topicObservers.get(topic);
+        if (subscribed != null) {
+            for (Observer observer : subscribed) {
+                if (instrumented == null) {
+                    observer.update(message);
+                } else {
+                    instrumented.update(observer, message);
+                }
+            }
+        }
+    }
+
+    //replaces observer, wherever it is attached, by a lane of its own
+    private void quarantine(Observer observer, ObserverMetrics metrics) {
+        synchronized (lock) {
+            if (metrics.getQuarantineLane() != null) {
+                return;
+            }
+            QuarantineLane lane = new QuarantineLane(observer);
+            observers = replace(observers, observer, lane);
+            topicObservers.replaceAll((topic, current) -> replace(current, observer, lane));
+            //a concurrent topic detach may have removed observer first, then the lane never runs
+            if (!isAttached(lane)) {
+                return;
+            }
+            metrics.quarantineLane = lane;
+            lane.start();
+        }
+    }
+
+    private boolean isAttached(Observer observer) {
+        if (indexOf(observers, observer) >= 0) {
+            return true;
+        }
+        for (Observer[] subscribed : topicObservers.values()) {
+            if (indexOf(subscribed, observer) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //called once an entry was cleared, removes every cleared entry
+    private void pruneCleared() {
+        while (cleared.poll() != null) {
+            //drain, all of them are removed below
+        }
+        List<Observer> removed = new ArrayList<>();
+        synchronized (lock) {
+            observers = withoutCleared(observers, removed);
+        }
+        for (String topic : topicObservers.keySet()) {
+            topicObservers.computeIfPresent(topic, (t, current) -> {
+                Observer[] updated = withoutCleared(current, removed);
+                return updated.length == 0 ? null : updated;
+            });
+        }
+        Instrumentation instrumented = instrumentation;
+        if (instrumented != null) {
+            instrumented.metrics.keySet().removeIf(MessagePublisher::isCleared);
+        }
+        for (Observer observer : removed) {
+            closeIfQuarantined(observer);
+        }
+    }
+
+    private static Observer[] withoutCleared(Observer[] current, List<Observer> removed) {
+        int live = 0;
+        for (Observer observer : current) {
+            if (!isCleared(observer)) {
+                live++;
+            }
+        }
+        if (live == current.length) {
+            return current;
+        }
+        Observer[] updated = new Observer[live];
+        int i = 0;
+        for (Observer observer : current) {
+            if (isCleared(observer)) {
+                removed.add(observer);
+            } else {
+                updated[i++] = observer;
+            }
+        }
+        return updated;
+    }
+
+    //a weakly attached observer that was collected, or the quarantine lane of one
+    private static boolean isCleared(Observer observer) {
+        return observer instanceof WeakObserver weak ? weak.refersTo(null)
+                : observer instanceof QuarantineLane lane && isCleared(lane.getObserver());
+    }
+
+    private static void closeIfQuarantined(Observer removed) {
+        if (removed instanceof QuarantineLane lane) {
+            lane.shutdown();
+        }
+    }
+
+    private static Observer[] append(Observer[] current, Observer observer) {
+        Observer[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = observer;
+        return updated;
+    }
+
+    //index of the first entry that is, filters for, or is the quarantine lane of observer
+    private static int indexOf(Observer[] current, Observer observer) {
+        for (int i = 0; i < current.length; i++) {
+            if (matches(current[i], observer)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(Observer candidate, Observer observer) {
+        return candidate.equals(observer)
+                || candidate instanceof FilteringObserver filtering && filtering.observer.equals(observer)
+                || candidate instanceof QuarantineLane lane && matches(lane.getObserver(), observer)
+                || candidate instanceof WeakObserver weak && weak.refersTo(observer);
+    }
+
+    private static Observer[] without(Observer[] current, int i) {
+        Observer[] updated = new Observer[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, i);
+        System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+        return updated;
+    }
+
+    private static Observer[] replace(Observer[] current, Observer observer, Observer replacement) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == observer) {
+                Observer[] updated = current.clone();
+                updated[i] = replacement;
+                return updated;
+            }
+        }
+        return current;
+    }
+
+    private final class Instrumentation {
+        private final long budgetNanos;
+        private final int quarantineAfter;
+        //keyed by the object in the observer arrays, which may wrap the attached observer
+        private final ConcurrentHashMap<Observer, ObserverMetrics> metrics = new ConcurrentHashMap<>();
+
+        Instrumentation(long budgetNanos, int quarantineAfter) {
+            this.budgetNanos = budgetNanos;
+            this.quarantineAfter = quarantineAfter;
+        }
+
+        void update(Observer observer, Message message) {
+            long start = System.nanoTime();
+            try {
+                observer.update(message);
+            } finally {
+                record(observer, System.nanoTime() - start);
+            }
+        }
+
+        void update(Observer observer, List<Message> messages) {
+            long start = System.nanoTime();
+            try {
+                observer.update(messages);
+            } finally {
+                record(observer, System.nanoTime() - start);
+            }
+        }
+
+        private void record(Observer observer, long nanos) {
+            ObserverMetrics observerMetrics = metrics.get(observer);
+            if (observerMetrics == null) {
+                //a weak observer stays weak: the metrics hold the reference, not the observer
+                Observer attached = observer instanceof FilteringObserver filtering ? filtering.observer : observer;
+                observerMetrics = metrics.computeIfAbsent(observer, o -> attached instanceof WeakObserver weak
+                        ? new ObserverMetrics((WeakReference<Observer>) weak) : new ObserverMetrics(attached));
+            }
+            observerMetrics.record(nanos);
+            if (nanos > budgetNanos) {
+                observerMetrics.overBudget.increment();
+                if (quarantineAfter > 0 && observerMetrics.getOverBudgetCount() >= quarantineAfter
+                        && !(observer instanceof AsyncObserver)) {
+                    quarantine(observer, observerMetrics);
+                }
+            }
+        }
+    }
+
+    private static final class WeakObserver extends WeakReference<Observer> implements Observer {
+        WeakObserver(Observer observer, ReferenceQueue<Observer> queue) {
+            super(observer, queue);
+        }
+
+        @Override
+        public void update(Message message) {
+            Observer observer = get();
+            if (observer != null) {
+                observer.update(message);
+            }
+        }
+
+        @Override
+        public void update(List<Message> messages) {
+            Observer observer = get();
+            if (observer != null) {
+                observer.update(messages);
+            }
+        }
+    }
+
+    private static final class QuarantineLane extends AsyncObserver {
+        //started by quarantine() once it is attached
+        QuarantineLane(Observer observer) {
+            super(observer, QUARANTINE_CAPACITY, WaitStrategy.PARK, BackpressurePolicy.DROP_OLDEST, DEFAULT_BATCH_SIZE,
+                    false);
+        }
+    }
+
+    private static final class FilteringObserver implements Observer {
+        private final Predicate<Message> filter;
+        private final Observer observer;
+
+        FilteringObserver(Predicate<Message> filter, Observer observer) {
+            this.filter = filter;
+            this.observer = observer;
+        }
+
+        @Override
+        public void update(Message message) {
+            if (filter.test(message)) {
+                observer.update(message);
+            }
+        }
+    }
+}
+
+/*
+What instrumentation recorded for one observer: how often it was updated and how long update() took.
+A topic observer with a filter is timed including its filter. After quarantine the lane is a separate entry,
+whose latency is the time to enqueue, see the lane's own counters for what happens after that.
+The metrics of a weakly attached observer only reference it weakly, they don't keep it from being collected.
+ */
+class ObserverMetrics {
+    private final Observer observer;
+    //instead of observer for a weakly attached one
+    private final WeakReference<Observer> weakObserver;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    final LongAdder overBudget = new LongAdder();
+    volatile AsyncObserver quarantineLane;
+
+    ObserverMetrics(Observer observer) {
+        this(observer, null);
+    }
+
+    ObserverMetrics(WeakReference<Observer> weakObserver) {
+        this(null, weakObserver);
+    }
+
+    private ObserverMetrics(Observer observer, WeakReference<Observer> weakObserver) {
+        this.observer = observer;
+        this.weakObserver = weakObserver;
+    }
+
+    void record(long nanos) {
+        latency.record(nanos);
+    }
+
+    //the attached observer, null once a weakly attached one was collected
+    public Observer getObserver() {
+        return weakObserver != null ? weakObserver.get() : observer;
+    }
+
+    boolean isFor(Observer attached) {
+        return weakObserver != null ? weakObserver.refersTo(attached) : observer.equals(attached);
+    }
+
+    public long getInvocationCount() {
+        return latency.getCount();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    //updates that took longer than the budget
+    public long getOverBudgetCount() {
+        return overBudget.sum();
+    }
+
+    public boolean isSlow() {
+        return getOverBudgetCount() > 0;
+    }
+
+    //the lane the observer was moved to, null if it wasn't quarantined
+    public AsyncObserver getQuarantineLane() {
+        return quarantineLane;
+    }
+
+    @Override
+    public String toString() {
+        return getObserver() + " :: " + getInvocationCount() + " updates, " + getOverBudgetCount() + " over budget, "
+                + latency + (quarantineLane != null ? ", quarantined" : "");
+    }
+}
+
+//How the consumer thread of an AsyncObserver waits for messages, and a blocked publisher waits for space
+enum WaitStrategy {
+    BUSY_SPIN, YIELD, PARK;
+
+    private static final long PARK_NANOS = 50_000;
+
+    void idle() {
+        switch (this) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELD -> Thread.yield();
+            case PARK -> LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
+
+//What a publisher does when the ring buffer of an AsyncObserver is full
+enum BackpressurePolicy {
+    BLOCK, DROP_OLDEST, FAIL
+}
+
+/*
+Observer that hands messages to a preallocated ring buffer and updates the wrapped observer on a thread of
+its own, so a slow subscriber no longer stalls the publisher.
+
+Any number of publishing threads can call update(). A publisher claims a sequence number by CAS on the tail,
+waits until the slot's previous message has been written, stores the message and publishes the sequence in
+the slot. The consumer thread drains up to batchSize published messages at a time and delivers them with a single
+update(List) call.
+DROP_OLDEST discards by moving the head forward; the consumer takes a message by CAS on the head too, so a
+message is either delivered or counted as dropped, never both.
+The consumer clears every slot it takes before the head moves past it, so a delivered message (and its payload)
+isn't kept reachable by the ring until the slot is written again. With DROP_OLDEST a publisher may move the head
+at any time, so the slot is cleared by CAS and only if it still holds the message that was read; a dropped
+message stays in its slot until it is overwritten.
+
+An exception thrown by the wrapped observer is counted as failed and the consumer goes on. An Error ends the
+consumer: the AsyncObserver is closed, further and blocked updates fail instead of waiting for space that
+never comes, and the Error goes to the thread's uncaught exception handler.
+
+close() rejects further updates, lets the consumer deliver what is already queued and waits for its thread to
+finish - unless called on that thread, from inside the wrapped observer, where it can't wait. shutdown() does
+the same without waiting. Detach it from the publisher first.
+ */
+class AsyncObserver implements Observer, AutoCloseable {
+
+    static final int DEFAULT_BATCH_SIZE = 64;
+    private static final AtomicInteger threadIds = new AtomicInteger();
+
+    //read-only list over the first size entries of batch, reused for every delivery
+    private final class BatchView extends AbstractList<Message> implements RandomAccess {
+        int size;
+
+        @Override
+        public Message get(int index) {
+            Objects.checkIndex(index, size);
+            return batch[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final Observer observer;
+    private final WaitStrategy waitStrategy;
+    private final BackpressurePolicy backpressure;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Message> buffer;
+    //sequence last written to each slot
+    private final AtomicLongArray published;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final Message[] batch;
+    private final BatchView batchView = new BatchView();
+    private final Thread consumer;
+    private volatile boolean running = true;
+    private volatile boolean consumerWaiting;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public AsyncObserver(Observer observer, int capacity, WaitStrategy waitStrategy, BackpressurePolicy backpressure) {
+        this(observer, capacity, waitStrategy, backpressure, DEFAULT_BATCH_SIZE);
+    }
+
+    //capacity is rounded up to a power of two
+    public AsyncObserver(Observer observer, int capacity, WaitStrategy waitStrategy, BackpressurePolicy backpressure,
+                         int batchSize) {
+        this(observer, capacity, waitStrategy, backpressure, batchSize, true);
+    }
+
+    //without startConsumer, updates are only queued until start() is called
+    AsyncObserver(Observer observer, int capacity, WaitStrategy waitStrategy, BackpressurePolicy backpressure,
+                  int batchSize, boolean startConsumer) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("capacity and batchSize must be positive");
+        }
+        this.observer = observer;
+        this.waitStrategy = waitStrategy;
+        this.backpressure = backpressure;
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(this.capacity);
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, i - this.capacity);
+        }
+        this.batch = new Message[Math.min(batchSize, this.capacity)];
+
+        this.consumer = new Thread(this::drainLoop, "async-observer-" + threadIds.incrementAndGet());
+        this.consumer.setDaemon(true);
+        if (startConsumer) {
+            this.consumer.start();
+        }
+    }
+
+    void start() {
+        consumer.start();
+    }
+
+    @Override
+    public void update(Message message) {
+        if (!running) {
+            throw new IllegalStateException("AsyncObserver is closed");
+        }
+
+        long sequence;
+        while (true) {
+            long t = tail.get();
+            long h = head.get();
+            if (t - h >= capacity) {
+                switch (backpressure) {
+                    case FAIL -> throw new IllegalStateException("AsyncObserver queue is full :: " + capacity);
+                    case BLOCK -> {
+                        if (!running) {
+                            throw new IllegalStateException("AsyncObserver is closed");
+                        }
+                        waitStrategy.idle();
+                    }
+                    case DROP_OLDEST -> {
+                        if (head.compareAndSet(h, h + 1)) {
+                            dropped.increment();
+                        }
+                    }
+                }
+                continue;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                sequence = t;
+                break;
+            }
+        }
+
+        int index = (int) sequence & mask;
+        while (published.get(index) != sequence - capacity) {
+            //the publisher of the previous lap has claimed this slot but not written it yet
+            Thread.onSpinWait();
+        }
+        //plain write, published by the volatile write of the sequence
+        buffer.setPlain(index, message);
+        published.set(index, sequence);
+
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            int drained = drain();
+            if (drained > 0) {
+                deliver(drained);
+            } else if (!running && head.get() == tail.get()) {
+                return;
+            } else {
+                consumerWaiting = true;
+                if (head.get() == tail.get()) {
+                    waitStrategy.idle();
+                }
+                consumerWaiting = false;
+            }
+        }
+    }
+
+    //moves up to batch.length published messages into batch
+    private int drain() {
+        int count = 0;
+        while (count < batch.length) {
+            long h = head.get();
+            int index = (int) h & mask;
+            long sequence = published.get(index);
+            if (sequence < h) {
+                break;  //not written yet
+            }
+            if (sequence > h) {
+                continue;  //dropped and overwritten, head has moved on
+            }
+            Message message = buffer.getPlain(index);
+            if (backpressure != BackpressurePolicy.DROP_OLDEST) {
+                //the consumer is the only one moving the head, the slot is ours until it does
+                buffer.setPlain(index, null);
+                head.set(h + 1);
+                batch[count++] = message;
+            } else if (buffer.compareAndSet(index, message, null) && head.compareAndSet(h, h + 1)) {
+                if (message != null) {
+                    batch[count++] = message;
+                } else {
+                    //the same Message was published again in this slot and cleared as the dropped one
+                    dropped.increment();
+                }
+            }
+        }
+        return count;
+    }
+
+    private void deliver(int count) {
+        batchView.size = count;
+        try {
+            observer.update(batchView);
+            delivered.add(count);
+        } catch (RuntimeException e) {
+            failed.add(count);
+        } catch (Error e) {
+            failed.add(count);
+            running = false;
+            throw e;
+        }
+        Arrays.fill(batch, 0, count, null);
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+        if (Thread.currentThread() == consumer || !consumer.isAlive()) {
+            return;
+        }
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //rejects further updates, the consumer delivers what is queued and exits on its own
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(consumer);
+    }
+
+    public Observer getObserver() {
+        return observer;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    //messages queued and not taken by the consumer yet
+    public long getQueueDepth() {
+        return Math.max(0, tail.get() - head.get());
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    //updates of the wrapped observer that threw
+    public long getFailedCount() {
+        return failed.sum();
     }
 }
 
 
 interface Observer {
     void update(Message message);
+
+    //Override to handle a whole batch at once (e.g. one write for all messages).
+    //The list is only valid during the call, copy it to keep the messages.
+    default void update(List<Message> messages) {
+        for (Message message : messages) {
+            update(message);
+        }
+    }
 }
 
 class MessageSubscriberOne implements Observer {
@@ -109,6 +973,32 @@ public class ObserverDP {
         messagePublisher.detach(subscriberOne);
         messagePublisher.notify(new Message("Message 3"));
 
+        MessagePublisher asyncPublisher = new MessagePublisher();
+        AsyncObserver async = asyncPublisher.attachAsync(subscriberOne, 1024, WaitStrategy.PARK,
+                BackpressurePolicy.BLOCK);
+        asyncPublisher.notify(new Message("Message 4"));
+        asyncPublisher.detach(async);
+        async.close();
+
+        messagePublisher.notify(new Message[]{new Message("Message 5"), new Message("Message 6")});
+
+        MessagePublisher topicPublisher = new MessagePublisher();
+        topicPublisher.attach("sports", subscriberOne);
+        topicPublisher.attach("news", m -> m.getMessage().startsWith("Breaking"), subscriberTwo);
+        topicPublisher.notify(new Message("sports", "Message 7"));
+        topicPublisher.notify(new Message("news", "Message 8"));
+        topicPublisher.notify(new Message("news", "Breaking Message 9"));
+
+        //encoded once, every subscriber shares the same bytes
+        messagePublisher.notify(BufferMessage.encode(null, "Message 10"));
+
+        //flags observers taking longer than 1ms, never quarantines them
+        topicPublisher.enableInstrumentation(Duration.ofMillis(1), 0);
+        topicPublisher.notify(new Message("sports", "Message 11"));
+        for (ObserverMetrics metrics : topicPublisher.getMetrics()) {
+            System.out.println(metrics);
+        }
+
     }
 
 }
@@ -21,6 +21,10 @@ Client:
 
  */
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
 //Product interface for Car
 interface Car {
     void assemble();
@@ -88,6 +92,92 @@ class EuropeanCarFactory implements CarFactory {
     }
 }
 
+enum Region {
+    INDIA, EUROPE
+}
+
+//Marker for products that hold per-call state and must be created on every call, never shared
+interface PerCallInstance {
+}
+
+//Both products of one factory call
+final class CarFamily {
+    private final Car car;
+    private final CarSpecification specs;
+
+    CarFamily(Car car, CarSpecification specs) {
+        this.car = car;
+        this.specs = specs;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public CarSpecification getSpecs() {
+        return specs;
+    }
+}
+
+/*
+Decorator over a CarFactory that hands out one shared instance of every stateless product.
+Products are created once up front; the ones implementing PerCallInstance are created by the wrapped factory
+on every call instead. All fields are final, so it can be shared between threads without locking.
+ */
+class CachingCarFactory implements CarFactory {
+    private final CarFactory factory;
+    private final Car car;
+    private final CarSpecification specs;
+
+    CachingCarFactory(CarFactory factory) {
+        this.factory = factory;
+        Car car = factory.createCar();
+        CarSpecification specs = factory.createSpecs();
+        this.car = car instanceof PerCallInstance ? null : car;
+        this.specs = specs instanceof PerCallInstance ? null : specs;
+    }
+
+    @Override
+    public Car createCar() {
+        return car != null ? car : factory.createCar();
+    }
+
+    @Override
+    public CarSpecification createSpecs() {
+        return specs != null ? specs : factory.createSpecs();
+    }
+}
+
+//Resolves the CarFactory of a region in O(1); the region table is filled once and only read afterwards
+class CarFactoryProvider {
+    private final Map<Region, CarFactory> factories = new EnumMap<>(Region.class);
+
+    public CarFactoryProvider() {
+        factories.put(Region.INDIA, new CachingCarFactory(new IndianCarFactory()));
+        factories.put(Region.EUROPE, new CachingCarFactory(new EuropeanCarFactory()));
+    }
+
+    public CarFactory forRegion(Region region) {
+        CarFactory factory = factories.get(region);
+        if (factory == null) {
+            throw new IllegalArgumentException("No car factory for ::" + region);
+        }
+        return factory;
+    }
+
+    public CarFamily createFamily(Region region) {
+        CarFactory factory = forRegion(region);
+        return new CarFamily(factory.createCar(), factory.createSpecs());
+    }
+
+    //one family per region, built in parallel on the common fork-join pool
+    public CarFamily[] createFamilies(Region[] regions) {
+        CarFamily[] families = new CarFamily[regions.length];
+        Arrays.parallelSetAll(families, i -> createFamily(regions[i]));
+        return families;
+    }
+}
+
 public class AbstractFactory {
 
     public static void main(String[] args) {
@@ -105,6 +195,12 @@ public class AbstractFactory {
         europeanCar.assemble();
         europeanCarSpecs.display();
 
+        CarFactoryProvider provider = new CarFactoryProvider();
+        CarFamily family = provider.createFamily(Region.EUROPE);
+        family.getCar().assemble();
+        family.getSpecs().display();
+        System.out.println(family.getCar() == provider.createFamily(Region.EUROPE).getCar());
+
     }
 
 }
@@ -19,22 +19,30 @@ Components of the Builder Design Pattern:
  */
 
 
-//Product
-class Computer {
-    private String cpu;
-    private String ram;
-    private String storage;
+import java.util.function.Supplier;
+
+//Product - immutable, a builder can hand out as many as it likes without sharing mutable state
+final class Computer {
+    private final String cpu;
+    private final String ram;
+    private final String storage;
 
-    public void setCPU(String cpu) {
+    public Computer(String cpu, String ram, String storage) {
         this.cpu = cpu;
+        this.ram = ram;
+        this.storage = storage;
     }
 
-    public void setRAM(String ram) {
-        this.ram = ram;
+    public String getCPU() {
+        return cpu;
     }
 
-    public void setStorage(String storage) {
-        this.storage = storage;
+    public String getRAM() {
+        return ram;
+    }
+
+    public String getStorage() {
+        return storage;
     }
 
     public void displayInfo() {
@@ -53,33 +61,77 @@ interface Builderr {
     void buildStorage();
 
     Computer build();
+
+    //clears the parts built so far so the builder can be used for the next product
+    void reset();
 }
 
+//Not thread-safe, but reusable: keep one per thread and reset() between products
 class GamingComputerBuilder implements Builderr {
-    private Computer computer;
-
-    public GamingComputerBuilder() {
-        this.computer = new Computer();
-    }
+    private String cpu;
+    private String ram;
+    private String storage;
 
     @Override
     public void buildCPU() {
-        computer.setCPU("Gaming CPU");
+        cpu = "Gaming CPU";
     }
 
     @Override
     public void buildRAM() {
-        computer.setRAM("16GB DDR4");
+        ram = "16GB DDR4";
     }
 
     @Override
     public void buildStorage() {
-        computer.setStorage("1TB SSD");
+        storage = "1TB SSD";
     }
 
     @Override
     public Computer build() {
-        return computer;
+        return new Computer(cpu, ram, storage);
+    }
+
+    @Override
+    public void reset() {
+        cpu = null;
+        ram = null;
+        storage = null;
+    }
+}
+
+//Director - knows the building steps, reuses one builder per thread
+class ComputerDirector {
+    private final ThreadLocal<Builderr> builders;
+
+    public ComputerDirector(Supplier<? extends Builderr> builderFactory) {
+        this.builders = ThreadLocal.withInitial(builderFactory);
+    }
+
+    public Computer construct() {
+        return construct(builders.get());
+    }
+
+    //builds n computers in one call, the only allocations are the array and the computers
+    public Computer[] constructBatch(int n) {
+        Computer[] computers = new Computer[n];
+        constructBatch(computers, 0, n);
+        return computers;
+    }
+
+    public void constructBatch(Computer[] into, int from, int n) {
+        Builderr builder = builders.get();
+        for (int i = from; i < from + n; i++) {
+            into[i] = construct(builder);
+        }
+    }
+
+    private static Computer construct(Builderr builder) {
+        builder.reset();
+        builder.buildCPU();
+        builder.buildRAM();
+        builder.buildStorage();
+        return builder.build();
     }
 }
 
@@ -94,5 +146,9 @@ public class Builder {
 
         Computer gamingComputer = gamingBuilder.build();
         gamingComputer.displayInfo();
+
+        ComputerDirector director = new ComputerDirector(GamingComputerBuilder::new);
+        Computer[] batch = director.constructBatch(3);
+        System.out.println(batch.length + " computers built, first has " + batch[0].getCPU());
     }
 }
@@ -11,6 +11,12 @@ public class BuilderII {
                 .build();
 
         System.out.println(user.getName() + " - " + user.getEmail());
+
+        UserBuilder.ColumnarBuilder bulk = UserBuilder.bulkBuilder(2);
+        bulk.name("Bob").age(41).email("bob@example.com").build();
+        UserRecord carol = bulk.name("Carol").age(35).email("carol@example.com").build();
+
+        System.out.println(carol.getName() + " - " + carol.getEmail() + " (" + bulk.store().size() + " users)");
     }
 
 }
@@ -22,6 +22,16 @@ Centralizes object creation logic across the application.
 Hides specific product classes from clients, reducing dependency.
 */
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
 //Product
 abstract class Vehicle {
     public abstract void printVehicle();
@@ -89,6 +99,98 @@ class Client {
 }
 
 
+enum VehicleType {
+    TWO_WHEELER, THREE_WHEELER, FOUR_WHEELER
+}
+
+/*
+Key driven creation (e.g. from config) without a VehicleFactory subclass per product.
+
+register() binds a key to the no-arg constructor of a Vehicle once: LambdaMetafactory spins a VehicleFactory
+implementation that calls the constructor directly, so creating a vehicle afterwards is a map lookup plus a
+plain constructor call - no reflection per call. Register everything at startup, the registry itself is not
+meant to be changed while other threads create vehicles.
+ */
+class VehicleRegistry<K> {
+
+    private final Map<K, VehicleFactory> factories;
+
+    private VehicleRegistry(Map<K, VehicleFactory> factories) {
+        this.factories = factories;
+    }
+
+    public static <K extends Enum<K>> VehicleRegistry<K> forEnum(Class<K> keyType) {
+        return new VehicleRegistry<>(new EnumMap<>(keyType));
+    }
+
+    public static VehicleRegistry<String> forStrings() {
+        return new VehicleRegistry<>(new HashMap<>());
+    }
+
+    //the built-in products, keyed by VehicleType
+    public static VehicleRegistry<VehicleType> defaults() {
+        VehicleRegistry<VehicleType> registry = forEnum(VehicleType.class);
+        registry.register(VehicleType.TWO_WHEELER, TwoWheeler.class);
+        registry.register(VehicleType.THREE_WHEELER, ThreeWheeler.class);
+        registry.register(VehicleType.FOUR_WHEELER, FourWheeler.class);
+        return registry;
+    }
+
+    public VehicleRegistry<K> register(K key, Class<? extends Vehicle> type) {
+        return register(key, bind(type));
+    }
+
+    public VehicleRegistry<K> register(K key, VehicleFactory factory) {
+        factories.put(key, factory);
+        return this;
+    }
+
+    public Vehicle createVehicle(K key) {
+        return factory(key).createVehicle();
+    }
+
+    public Vehicle[] createVehicles(K key, int n) {
+        Vehicle[] vehicles = new Vehicle[n];
+        createVehicles(key, vehicles, 0, n);
+        return vehicles;
+    }
+
+    //fills into[from, from + n) with new vehicles, the lookup is done once for the whole range
+    public void createVehicles(K key, Vehicle[] into, int from, int n) {
+        VehicleFactory factory = factory(key);
+        for (int i = from; i < from + n; i++) {
+            into[i] = factory.createVehicle();
+        }
+    }
+
+    private VehicleFactory factory(K key) {
+        VehicleFactory factory = factories.get(key);
+        if (factory == null) {
+            throw new IllegalArgumentException("No vehicle registered for ::" + key);
+        }
+        return factory;
+    }
+
+    private static VehicleFactory bind(Class<? extends Vehicle> type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup,
+                    "createVehicle",
+                    MethodType.methodType(VehicleFactory.class),
+                    MethodType.methodType(Vehicle.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (VehicleFactory) site.getTarget().invoke();
+        } catch (NoSuchMethodException | IllegalAccessException | LambdaConversionException e) {
+            throw new IllegalArgumentException("No accessible no-arg constructor on ::" + type.getName(), e);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Could not bind constructor of " + type.getName(), t);
+        }
+    }
+}
+
+
 public class Factory {
     public static void main(String[] args) {
         VehicleFactory twoWheelerFactory = new TwoWheelerFactory();
@@ -106,5 +208,14 @@ public class Factory {
         Client threeWheelerClient = new Client(threeWheelerFactory);
         Vehicle threeWheeler = threeWheelerClient.getVehicle();
         threeWheeler.printVehicle();
+
+        //Key driven creation, constructors are bound once
+        VehicleRegistry<String> registry = VehicleRegistry.forStrings()
+                .register("two", TwoWheeler.class)
+                .register("four", FourWheeler.class);
+        registry.createVehicle("four").printVehicle();
+
+        Vehicle[] fleet = VehicleRegistry.defaults().createVehicles(VehicleType.TWO_WHEELER, 3);
+        System.out.println(fleet.length + " vehicles created");
     }
 }
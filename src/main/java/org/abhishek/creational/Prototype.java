@@ -14,8 +14,18 @@ would be expensive compared to cloning.
  */
 
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 interface PrototypeCapable extends Cloneable {
     PrototypeCapable clone() throws CloneNotSupportedException;
@@ -24,8 +34,15 @@ interface PrototypeCapable extends Cloneable {
 }
 
 class Movie implements PrototypeCapable {
+
+    public Movie() {
+    }
+
+    //copy constructor, used by the copy strategies that don't go through clone()
+    public Movie(Movie prototype) {
+    }
+
     public PrototypeCapable clone() throws CloneNotSupportedException {
-        System.out.println("Cloning Movie object..");
         return (Movie) super.clone();
     }
 
@@ -35,8 +52,15 @@ class Movie implements PrototypeCapable {
 }
 
 class TV implements PrototypeCapable {
+
+    public TV() {
+    }
+
+    //copy constructor, used by the copy strategies that don't go through clone()
+    public TV(TV prototype) {
+    }
+
     public PrototypeCapable clone() throws CloneNotSupportedException {
-        System.out.println("Cloning TV object..");
         return (TV) super.clone();
     }
 
@@ -45,6 +69,254 @@ class TV implements PrototypeCapable {
     }
 }
 
+//How a registered prototype is copied, e.g. Movie::new for a copy constructor
+@FunctionalInterface
+interface CopyStrategy<T extends PrototypeCapable> {
+    T copy(T prototype) throws CloneNotSupportedException;
+}
+
+class CopyStrategies {
+
+    private CopyStrategies() {
+    }
+
+    //Object.clone(), the classic prototype copy
+    @SuppressWarnings("unchecked")
+    public static <T extends PrototypeCapable> CopyStrategy<T> cloning() {
+        return prototype -> (T) prototype.clone();
+    }
+
+    //Copy constructor looked up once through a MethodHandle, no reflection per copy
+    public static <T extends PrototypeCapable> CopyStrategy<T> copyConstructor(Class<T> type) {
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.lookup()
+                    .findConstructor(type, MethodType.methodType(void.class, type))
+                    .asType(MethodType.methodType(PrototypeCapable.class, PrototypeCapable.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("No accessible copy constructor on ::" + type.getName(), e);
+        }
+
+        return prototype -> {
+            try {
+                return type.cast((PrototypeCapable) constructor.invokeExact((PrototypeCapable) prototype));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Copy constructor of " + type.getName() + " failed", t);
+            }
+        };
+    }
+}
+
+//Brings a recycled instance back to the state of its prototype before it is handed out again
+@FunctionalInterface
+interface ResetStrategy<T extends PrototypeCapable> {
+    void reset(T instance, T prototype);
+}
+
+/*
+Recycling pool of copies of one prototype.
+
+acquire() hands out a pooled instance (reset to the prototype state) or a fresh copy when the pool is empty,
+release() gives it back. Every thread keeps a small private cache so acquire/release normally don't touch
+shared state; when the private cache is full, released instances spill over to a shared lock-free stack that
+other threads take from when their own cache is empty. Instances that don't fit in either are dropped.
+
+With leak tracking on, every instance handed out is watched through a weak reference; one that is garbage
+collected without having been released is counted as a leak, and releasing an instance that isn't
+outstanding (released twice, or never acquired from this pool) fails. Tracking allocates per acquire, keep it
+for debugging. Without it the pool still knows which instances it holds: releasing one that is already in the
+pool (released twice before being acquired again) fails as well.
+ */
+class PrototypePool<T extends PrototypeCapable> {
+
+    static final int DEFAULT_PER_THREAD_CAPACITY = 16;
+    static final int DEFAULT_SHARED_CAPACITY = 1024;
+
+    private static final class Node<T> {
+        final T value;
+        Node<T> next;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    //weak reference compared by the identity of its referent, so released instances can be looked up
+    private static final class TrackedRef extends WeakReference<Object> {
+        private final int hash;
+
+        TrackedRef(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof TrackedRef)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((TrackedRef) other).get();
+        }
+    }
+
+    private final T prototype;
+    private final CopyStrategy<T> copyStrategy;
+    private final ResetStrategy<T> resetStrategy;
+    private final int perThreadCapacity;
+    private final int sharedCapacity;
+
+    private final ThreadLocal<ArrayDeque<T>> localCache;
+    private final AtomicReference<Node<T>> sharedStack = new AtomicReference<>();
+    private final AtomicInteger sharedSize = new AtomicInteger();
+
+    private final LongAdder pooled = new LongAdder();
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+
+    private final boolean trackLeaks;
+    private final Set<TrackedRef> outstanding = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final LongAdder leaks = new LongAdder();
+    //instances in the thread caches and the shared stack, only kept without leak tracking
+    private final Set<TrackedRef> inPool = ConcurrentHashMap.newKeySet();
+
+    public PrototypePool(T prototype, CopyStrategy<T> copyStrategy, ResetStrategy<T> resetStrategy) {
+        this(prototype, copyStrategy, resetStrategy, DEFAULT_PER_THREAD_CAPACITY, DEFAULT_SHARED_CAPACITY, false);
+    }
+
+    public PrototypePool(T prototype, CopyStrategy<T> copyStrategy, ResetStrategy<T> resetStrategy,
+                         int perThreadCapacity, int sharedCapacity, boolean trackLeaks) {
+        this.prototype = prototype;
+        this.copyStrategy = copyStrategy;
+        this.resetStrategy = resetStrategy;
+        this.perThreadCapacity = perThreadCapacity;
+        this.sharedCapacity = sharedCapacity;
+        this.trackLeaks = trackLeaks;
+        this.localCache = ThreadLocal.withInitial(() -> new ArrayDeque<>(perThreadCapacity));
+    }
+
+    public T acquire() throws CloneNotSupportedException {
+        acquires.increment();
+
+        T instance = localCache.get().pollFirst();
+        if (instance == null) {
+            instance = popShared();
+        }
+
+        if (instance != null) {
+            hits.increment();
+            pooled.decrement();
+            if (!trackLeaks) {
+                inPool.remove(new TrackedRef(instance, null));
+            }
+            resetStrategy.reset(instance, prototype);
+        } else {
+            instance = copyStrategy.copy(prototype);
+        }
+
+        if (trackLeaks) {
+            expungeCollected();
+            outstanding.add(new TrackedRef(instance, collected));
+        }
+        return instance;
+    }
+
+    public void release(T instance) {
+        if (trackLeaks && !outstanding.remove(new TrackedRef(instance, null))) {
+            throw new IllegalStateException("Instance is not outstanding, released twice or not from this pool ::"
+                    + instance);
+        }
+        TrackedRef ref = trackLeaks ? null : new TrackedRef(instance, null);
+        if (ref != null && !inPool.add(ref)) {
+            throw new IllegalStateException("Instance is already in the pool, released twice ::" + instance);
+        }
+        releases.increment();
+
+        ArrayDeque<T> local = localCache.get();
+        if (local.size() < perThreadCapacity) {
+            local.addFirst(instance);
+            pooled.increment();
+        } else if (pushShared(instance)) {
+            pooled.increment();
+        } else if (ref != null) {
+            inPool.remove(ref);  //dropped
+        }
+    }
+
+    private T popShared() {
+        while (true) {
+            Node<T> head = sharedStack.get();
+            if (head == null) {
+                return null;
+            }
+            if (sharedStack.compareAndSet(head, head.next)) {
+                sharedSize.decrementAndGet();
+                return head.value;
+            }
+        }
+    }
+
+    private boolean pushShared(T instance) {
+        if (sharedSize.incrementAndGet() > sharedCapacity) {
+            sharedSize.decrementAndGet();
+            return false;
+        }
+        Node<T> node = new Node<>(instance);
+        while (true) {
+            Node<T> head = sharedStack.get();
+            node.next = head;
+            if (sharedStack.compareAndSet(head, node)) {
+                return true;
+            }
+        }
+    }
+
+    private void expungeCollected() {
+        Reference<?> ref;
+        while ((ref = collected.poll()) != null) {
+            if (outstanding.remove(ref)) {
+                leaks.increment();
+            }
+        }
+    }
+
+    //instances currently sitting in the pool, thread caches included
+    public long getPooledCount() {
+        return pooled.sum();
+    }
+
+    //share of acquires served from the pool, 0 when nothing was acquired yet
+    public double getHitRate() {
+        long total = acquires.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    //acquired and not released yet
+    public long getOutstandingCount() {
+        return acquires.sum() - releases.sum();
+    }
+
+    //garbage collected without being released, only counted with leak tracking on
+    public long getLeakCount() {
+        if (trackLeaks) {
+            expungeCollected();
+        }
+        return leaks.sum();
+    }
+}
+
 class PrototypeFactory {
 
     public static class ModelType {
@@ -53,15 +325,99 @@ class PrototypeFactory {
         public static final String TV = "tv";
     }
 
-    private static Map<String, PrototypeCapable> prototypes = new HashMap<>();
+    private static final class Registration<T extends PrototypeCapable> {
+        private final T prototype;
+        private final CopyStrategy<T> strategy;
+        private final PrototypePool<T> pool;
+
+        Registration(T prototype, CopyStrategy<T> strategy, PrototypePool<T> pool) {
+            this.prototype = prototype;
+            this.strategy = strategy;
+            this.pool = pool;
+        }
+
+        PrototypeCapable copy() throws CloneNotSupportedException {
+            return strategy.copy(prototype);
+        }
+
+        PrototypeCapable acquire() throws CloneNotSupportedException {
+            return pool == null ? copy() : pool.acquire();
+        }
+
+        @SuppressWarnings("unchecked")
+        void release(PrototypeCapable instance) {
+            //a copy of another prototype would surface later in somebody else's acquire()
+            if (instance.getClass() != prototype.getClass()) {
+                throw new IllegalArgumentException("Not a copy of " + prototype.getClass().getSimpleName() + " ::"
+                        + instance.getClass().getSimpleName());
+            }
+            if (pool != null) {
+                pool.release((T) instance);
+            }
+        }
+    }
+
+    //registrations can change at runtime while other threads are copying
+    private static final ConcurrentHashMap<String, Registration<?>> prototypes = new ConcurrentHashMap<>();
 
     static {
-        prototypes.put(ModelType.MOVIE, new Movie());
-        prototypes.put(ModelType.TV, new TV());
+        register(ModelType.MOVIE, new Movie());
+        register(ModelType.TV, new TV());
+    }
+
+    public static void register(String key, PrototypeCapable prototype) {
+        register(key, prototype, CopyStrategies.cloning());
+    }
+
+    public static <T extends PrototypeCapable> void register(String key, T prototype, CopyStrategy<T> strategy) {
+        prototypes.put(key, new Registration<>(prototype, strategy, null));
+    }
+
+    //opt-in pooling: acquire()/release() recycle copies of this prototype instead of creating new ones
+    public static <T extends PrototypeCapable> PrototypePool<T> registerPooled(String key, T prototype,
+                                                                              CopyStrategy<T> strategy,
+                                                                              ResetStrategy<T> reset) {
+        return registerPooled(key, prototype, strategy, reset, PrototypePool.DEFAULT_PER_THREAD_CAPACITY,
+                PrototypePool.DEFAULT_SHARED_CAPACITY, false);
+    }
+
+    //same, with the pool sized and leak tracking chosen, see PrototypePool
+    public static <T extends PrototypeCapable> PrototypePool<T> registerPooled(String key, T prototype,
+                                                                              CopyStrategy<T> strategy,
+                                                                              ResetStrategy<T> reset,
+                                                                              int perThreadCapacity,
+                                                                              int sharedCapacity,
+                                                                              boolean trackLeaks) {
+        PrototypePool<T> pool = new PrototypePool<>(prototype, strategy, reset, perThreadCapacity, sharedCapacity,
+                trackLeaks);
+        prototypes.put(key, new Registration<>(prototype, strategy, pool));
+        return pool;
+    }
+
+    public static boolean unregister(String key) {
+        return prototypes.remove(key) != null;
     }
 
     public static PrototypeCapable getInstance(final String s) throws CloneNotSupportedException {
-        return prototypes.get(s).clone();
+        return registration(s).copy();
+    }
+
+    //a pooled instance when the key was registered with registerPooled, otherwise a plain copy
+    public static PrototypeCapable acquire(final String s) throws CloneNotSupportedException {
+        return registration(s).acquire();
+    }
+
+    //give back an instance from acquire(), it must not be used afterwards
+    public static void release(final String s, PrototypeCapable instance) {
+        registration(s).release(instance);
+    }
+
+    private static Registration<?> registration(String s) {
+        Registration<?> registration = prototypes.get(s);
+        if (registration == null) {
+            throw new IllegalArgumentException("No prototype registered for ::" + s);
+        }
+        return registration;
     }
 }
 
@@ -75,6 +431,21 @@ public class Prototype {
             String tv = PrototypeFactory.getInstance(PrototypeFactory.ModelType.TV).toString();
             System.out.println(tv);
 
+            //copy through the copy constructor instead of clone()
+            PrototypeFactory.register(PrototypeFactory.ModelType.MOVIE, new Movie(), Movie::new);
+            System.out.println(PrototypeFactory.getInstance(PrototypeFactory.ModelType.MOVIE));
+
+            PrototypeFactory.register(PrototypeFactory.ModelType.TV, new TV(), CopyStrategies.copyConstructor(TV.class));
+            System.out.println(PrototypeFactory.getInstance(PrototypeFactory.ModelType.TV));
+
+            //pooled copies, released instances are handed out again
+            PrototypePool<Movie> pool = PrototypeFactory.registerPooled(PrototypeFactory.ModelType.MOVIE,
+                    new Movie(), Movie::new, (instance, prototype) -> { });
+            PrototypeCapable first = PrototypeFactory.acquire(PrototypeFactory.ModelType.MOVIE);
+            PrototypeFactory.release(PrototypeFactory.ModelType.MOVIE, first);
+            PrototypeCapable second = PrototypeFactory.acquire(PrototypeFactory.ModelType.MOVIE);
+            System.out.println((first == second) + " hit rate : " + pool.getHitRate());
+
         } catch (CloneNotSupportedException exception) {
             System.out.println(exception.getMessage());
         }
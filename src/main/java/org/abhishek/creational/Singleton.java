@@ -2,6 +2,14 @@ package org.abhishek.creational;
 
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 class DemoSingleton implements Serializable {
 
@@ -45,21 +53,113 @@ class DemoSingleton implements Serializable {
 
 }
 
+/*
+Compact binary checkpoint of the DemoSingleton state, a cheaper alternative to Java serialization.
+
+Layout (big endian):
+    int   magic    0x44534E50 ("DSNP")
+    short version
+    int   length of value in bytes, -1 when value is null
+    byte[] value   UTF-8
+
+write() fills a temp file next to the target through a FileChannel and renames it over the target atomically,
+so a reader never sees a half written snapshot. read() maps the file and copies the state into the existing
+instance - like readResolve, loading a snapshot never creates a second DemoSingleton.
+ */
+class SingletonSnapshot {
+
+    static final int MAGIC = 0x44534E50;
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Integer.BYTES;
+
+    private SingletonSnapshot() {
+    }
+
+    public static void write(DemoSingleton instance, Path target) throws IOException {
+        write(instance, target, true);
+    }
+
+    //force = false skips the fsync, the rename is still atomic but the snapshot may be lost on a crash
+    public static void write(DemoSingleton instance, Path target, boolean force) throws IOException {
+        String value = instance.getValue();
+        byte[] valueBytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (valueBytes == null ? 0 : valueBytes.length));
+        buffer.putInt(MAGIC).putShort(VERSION);
+        if (valueBytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(valueBytes.length).put(valueBytes);
+        }
+        buffer.flip();
+
+        //a temp file of its own per write, so concurrent checkpoints never write into each other's file
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (force) {
+                    channel.force(false);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    public static DemoSingleton read(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Snapshot is truncated :: " + source);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a singleton snapshot :: " + source);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version :: " + version);
+            }
+
+            int length = buffer.getInt();
+            String value = null;
+            if (length >= 0) {
+                if (length > buffer.remaining()) {
+                    throw new IOException("Snapshot is truncated :: " + source);
+                }
+                byte[] valueBytes = new byte[length];
+                buffer.get(valueBytes);
+                value = new String(valueBytes, StandardCharsets.UTF_8);
+            }
+
+            DemoSingleton instance = DemoSingleton.getInstance();
+            instance.setValue(value);
+            return instance;
+        }
+    }
+}
+
 public class Singleton {
-    public static void main(String[] args) throws IOException, ClassNotFoundException {
+    public static void main(String[] args) throws IOException {
         DemoSingleton instance = DemoSingleton.getInstance();
         instance.setValue("serialized");
 
-        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream("src/main/resources/singleton.ser"));
-        out.writeObject(instance);
-        out.close();
+        Path snapshot = Path.of("src/main/resources/singleton.snapshot");
+        SingletonSnapshot.write(instance, snapshot);
 
-        System.out.println("Object serialized.");
+        System.out.println("Snapshot written.");
 
-        ObjectInputStream in = new ObjectInputStream(new FileInputStream("src/main/resources/singleton.ser"));
-        DemoSingleton deserializedObject = (DemoSingleton) in.readObject();
-        in.close();
-        System.out.println(deserializedObject.getValue());
+        instance.setValue("changed after snapshot");
+        DemoSingleton restored = SingletonSnapshot.read(snapshot);
+        System.out.println(restored.getValue());
+        System.out.println(restored == instance);
     }
 
 }
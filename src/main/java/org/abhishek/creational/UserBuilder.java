@@ -1,6 +1,9 @@
 package org.abhishek.creational;
 
-public class UserBuilder {
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class UserBuilder implements UserRecord {
 
         private String name;
         private int age;
@@ -49,4 +52,175 @@ public class UserBuilder {
             return new Builder();
         }
 
+        // Bulk loading: users are appended to a columnar UserStore instead of one object each
+        public static ColumnarBuilder bulkBuilder(int expectedUsers) {
+            return new ColumnarBuilder(new UserStore(expectedUsers));
+        }
+
+        // Same steps as Builder, build() appends a row to the store and returns a view of it
+        public static class ColumnarBuilder {
+            private final UserStore store;
+            private String name;
+            private int age;
+            private String email;
+
+            ColumnarBuilder(UserStore store) {
+                this.store = store;
+            }
+
+            public ColumnarBuilder name(String name) {
+                this.name = name;
+                return this;
+            }
+
+            public ColumnarBuilder age(int age) {
+                this.age = age;
+                return this;
+            }
+
+            public ColumnarBuilder email(String email) {
+                this.email = email;
+                return this;
+            }
+
+            public UserRecord build() {
+                int index = append();
+                return store.get(index);
+            }
+
+            // build() without creating the view, returns the row index in the store
+            public int append() {
+                int index = store.add(name, age, email);
+                name = null;
+                age = 0;
+                email = null;
+                return index;
+            }
+
+            public UserStore store() {
+                return store;
+            }
+        }
+
+}
+
+/*
+Struct-of-arrays storage for large numbers of users.
+
+Instead of one object (header + three references) per user, every column is an array: ages are an int[],
+names and emails are int ids into a dictionary, so repeated values are stored once. get() returns a small view
+over a row; scanning code can read the columns directly through nameAt/ageAt/emailAt without any view.
+Not thread-safe, fill it from one thread and publish it afterwards.
+ */
+class UserStore {
+
+    // String <-> id dictionary, a value is stored once no matter how many rows use it
+    static class Dictionary {
+        private final HashMap<String, Integer> ids = new HashMap<>();
+        private String[] values = new String[16];
+
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = ids.size();
+                if (id == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                values[id] = value;
+                ids.put(value, id);
+            }
+            return id;
+        }
+
+        String decode(int id) {
+            return id < 0 ? null : values[id];
+        }
+
+        int size() {
+            return ids.size();
+        }
+    }
+
+    // Lightweight row view, holds only the store and the row index
+    static final class UserView implements UserRecord {
+        private final UserStore store;
+        private final int index;
+
+        UserView(UserStore store, int index) {
+            this.store = store;
+            this.index = index;
+        }
+
+        public String getName() { return store.nameAt(index); }
+        public int getAge() { return store.ageAt(index); }
+        public String getEmail() { return store.emailAt(index); }
+    }
+
+    private final Dictionary names = new Dictionary();
+    private final Dictionary emails = new Dictionary();
+    private int[] nameIds;
+    private int[] ages;
+    private int[] emailIds;
+    private int size;
+
+    public UserStore(int expectedUsers) {
+        int capacity = Math.max(expectedUsers, 16);
+        nameIds = new int[capacity];
+        ages = new int[capacity];
+        emailIds = new int[capacity];
+    }
+
+    public int add(String name, int age, String email) {
+        if (size == ages.length) {
+            int capacity = ages.length + (ages.length >> 1);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            emailIds = Arrays.copyOf(emailIds, capacity);
+        }
+        nameIds[size] = names.encode(name);
+        ages[size] = age;
+        emailIds[size] = emails.encode(email);
+        return size++;
+    }
+
+    public UserRecord get(int index) {
+        checkIndex(index);
+        return new UserView(this, index);
+    }
+
+    public String nameAt(int index) {
+        checkIndex(index);
+        return names.decode(nameIds[index]);
+    }
+
+    public int ageAt(int index) {
+        checkIndex(index);
+        return ages[index];
+    }
+
+    public String emailAt(int index) {
+        checkIndex(index);
+        return emails.decode(emailIds[index]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int distinctNames() {
+        return names.size();
+    }
+
+    public int distinctEmails() {
+        return emails.size();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No user at index ::" + index);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package org.abhishek.creational;
+
+//Read access shared by UserBuilder objects and the views of a UserStore
+interface UserRecord {
+    String getName();
+
+    int getAge();
+
+    String getEmail();
+}
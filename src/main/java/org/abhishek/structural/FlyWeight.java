@@ -33,7 +33,12 @@ All other attributes such as pen body, pointer etc. can be intrinsic attributes
 A pen will be distinguished by its refill color only, nothing else.
  */
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 interface Pen {
     void setColor(String color);
@@ -90,56 +95,273 @@ class MediumPen implements Pen {
     }
 }
 
-class PenFactory {
-    private static final HashMap<String, Pen> pensMap = new HashMap<>();
+enum EvictionPolicy {
+    LRU, LFU
+}
 
-    public static Pen getThickPen(String color) {
-        String key = color + "-THICK";
+/*
+Thread-safe store of the shared pens.
 
-        Pen pen = pensMap.get(key);
+Every color gets an int id from a color dictionary the first time it is seen, and the pens are kept in one
+table per BrushSize indexed by that id. A lookup that hits is therefore a dictionary get plus an array read -
+no key is built and nothing is allocated.
 
-        if (pen != null) {
-            return pen;
-        } else {
-            pen = new ThickPen();
-            pen.setColor(color);
-            pensMap.put(key, pen);
+Hits take no lock. Misses, growing a table and evictions take the lock of the cache, so two threads asking
+for the same pen at the same time always get the same instance.
+
+The cache is unbounded by default; when a max size is given, a pen is evicted after every insert that takes
+the cache over its size, chosen by the eviction policy:
+
+LRU - the pen whose last access is oldest. Accesses are stamped with a logical clock that only advances on a
+miss, so a hit is a plain read and (at most) one field write.
+LFU - the pen with the fewest hits. Hit counts are approximate, concurrent increments may be lost.
+
+When the last pen of a color is evicted, the color leaves the dictionary and its id is reused by the next new
+color, so a bounded cache keeps at most maxSize + 1 colors and ids: the dictionary and the tables stay bounded
+however many distinct colors go through the cache. Since an id can change hands, a hit checks the color of
+the entry it found. Eviction scans the tables, so its cost is O(maxSize) and is only paid on a miss when the
+cache is full.
+ */
+class PenCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final class Entry {
+        final String color;
+        final Pen pen;
+        volatile long lastAccess;
+        volatile int frequency;
+
+        Entry(String color, Pen pen, long lastAccess) {
+            this.color = color;
+            this.pen = pen;
+            this.lastAccess = lastAccess;
         }
+    }
 
-        return pen;
+    //pens of one BrushSize, indexed by color id
+    private static final class PenTable {
+        volatile AtomicReferenceArray<Entry> slots = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+        //caller holds the lock of the cache
+        AtomicReferenceArray<Entry> ensureCapacity(int colorId) {
+            AtomicReferenceArray<Entry> current = slots;
+            if (colorId < current.length()) {
+                return current;
+            }
+            int capacity = current.length();
+            while (capacity <= colorId) {
+                capacity <<= 1;
+            }
+            AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            slots = grown;
+            return grown;
+        }
     }
 
-    public static Pen getThinPen(String color) {
-        String key = color + "-THIN";
+    private final Object lock = new Object();
+    private final ConcurrentHashMap<String, Integer> colorIds = new ConcurrentHashMap<>();
+    //guarded by lock: pens cached per color id, ids free for reuse and the next never used id
+    private int[] penCounts = new int[INITIAL_CAPACITY];
+    private int[] freeColorIds = new int[INITIAL_CAPACITY];
+    private int freeColorIdCount;
+    private int nextColorId;
+    private final PenTable[] tables = new PenTable[BrushSize.values().length];
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+    private final EvictionPolicy policy;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    //unbounded cache
+    public PenCache() {
+        this(0, EvictionPolicy.LRU);
+    }
 
-        Pen pen = pensMap.get(key);
+    public PenCache(int maxSize, EvictionPolicy policy) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative :: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.policy = policy;
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new PenTable();
+        }
+    }
 
-        if (pen != null) {
-            return pen;
-        } else {
-            pen = new ThinPen();
-            pen.setColor(color);
-            pensMap.put(key, pen);
+    public Pen getPen(String color, BrushSize brushSize) {
+        PenTable table = tables[brushSize.ordinal()];
+
+        Integer colorId = colorIds.get(color);
+        if (colorId != null) {
+            AtomicReferenceArray<Entry> slots = table.slots;
+            int id = colorId;
+            if (id < slots.length()) {
+                Entry entry = slots.get(id);
+                //the id may have been handed to another color since it was read
+                if (entry != null && entry.color.equals(color)) {
+                    hits.increment();
+                    touch(entry);
+                    return entry.pen;
+                }
+            }
         }
 
-        return pen;
+        return createIfAbsent(table, color, brushSize);
     }
 
-    public static Pen getMediumPen(String color) {
-        String key = color + "-MEDIUM";
+    private Pen createIfAbsent(PenTable table, String color, BrushSize brushSize) {
+        synchronized (lock) {
+            Integer known = colorIds.get(color);
+            int colorId = known != null ? known : assignColorId(color);
+            AtomicReferenceArray<Entry> slots = table.ensureCapacity(colorId);
+            Entry entry = slots.get(colorId);
+            if (entry != null) {
+                //another thread created it while we were waiting for the lock
+                hits.increment();
+                touch(entry);
+                return entry.pen;
+            }
+            entry = new Entry(color, createPen(color, brushSize), clock.incrementAndGet());
+            slots.set(colorId, entry);
+            penCounts[colorId]++;
+
+            misses.increment();
+            if (size.incrementAndGet() > maxSize && maxSize > 0) {
+                evict(entry);
+            }
+            return entry.pen;
+        }
+    }
+
+    //caller holds lock
+    private int assignColorId(String color) {
+        int colorId = freeColorIdCount > 0 ? freeColorIds[--freeColorIdCount] : nextColorId++;
+        if (colorId >= penCounts.length) {
+            penCounts = Arrays.copyOf(penCounts, penCounts.length << 1);
+        }
+        colorIds.put(color, colorId);
+        return colorId;
+    }
 
-        Pen pen = pensMap.get(key);
+    //caller holds lock, called when the last pen of the color is gone
+    private void releaseColorId(String color, int colorId) {
+        colorIds.remove(color);
+        if (freeColorIdCount == freeColorIds.length) {
+            freeColorIds = Arrays.copyOf(freeColorIds, freeColorIds.length << 1);
+        }
+        freeColorIds[freeColorIdCount++] = colorId;
+    }
 
-        if (pen != null) {
-            return pen;
+    private void touch(Entry entry) {
+        if (maxSize == 0) {
+            return;
+        }
+        if (policy == EvictionPolicy.LFU) {
+            entry.frequency++;
         } else {
-            pen = new MediumPen();
-            pen.setColor(color);
-            pensMap.put(key, pen);
+            long now = clock.get();
+            if (entry.lastAccess != now) {
+                entry.lastAccess = now;
+            }
         }
+    }
 
+    //caller holds lock
+    private void evict(Entry justAdded) {
+        while (size.get() > maxSize) {
+            PenTable victimTable = null;
+            int victimId = -1;
+            Entry victim = null;
+            for (PenTable table : tables) {
+                AtomicReferenceArray<Entry> slots = table.slots;
+                for (int id = 0; id < slots.length(); id++) {
+                    Entry candidate = slots.get(id);
+                    if (candidate == null || candidate == justAdded) {
+                        continue;
+                    }
+                    if (victim == null || isColder(candidate, victim)) {
+                        victimTable = table;
+                        victimId = id;
+                        victim = candidate;
+                    }
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            victimTable.slots.set(victimId, null);
+            size.decrementAndGet();
+            evictions.increment();
+            if (--penCounts[victimId] == 0) {
+                releaseColorId(victim.color, victimId);
+            }
+        }
+    }
+
+    private boolean isColder(Entry a, Entry b) {
+        if (policy == EvictionPolicy.LFU) {
+            return a.frequency < b.frequency;
+        }
+        return a.lastAccess < b.lastAccess;
+    }
+
+    private static Pen createPen(String color, BrushSize brushSize) {
+        Pen pen = switch (brushSize) {
+            case THIN -> new ThinPen();
+            case MEDIUM -> new MediumPen();
+            case THICK -> new ThickPen();
+        };
+        pen.setColor(color);
         return pen;
     }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+}
+
+class PenFactory {
+    private static volatile PenCache cache = new PenCache();
+
+    //e.g. PenFactory.setCache(new PenCache(1024, EvictionPolicy.LRU)) to bound the number of pens
+    public static void setCache(PenCache penCache) {
+        cache = penCache;
+    }
+
+    public static PenCache getCache() {
+        return cache;
+    }
+
+    public static Pen getThickPen(String color) {
+        return cache.getPen(color, BrushSize.THICK);
+    }
+
+    public static Pen getThinPen(String color) {
+        return cache.getPen(color, BrushSize.THIN);
+    }
+
+    public static Pen getMediumPen(String color) {
+        return cache.getPen(color, BrushSize.MEDIUM);
+    }
 }
 
 public class FlyWeight {
@@ -157,5 +379,9 @@ public class FlyWeight {
         System.out.println(yellowThinPen2.hashCode());
 
         System.out.println(blueThinPen.hashCode());
+
+        PenCache cache = PenFactory.getCache();
+        System.out.println("hits : " + cache.getHitCount() + ", misses : " + cache.getMissCount()
+                + ", evictions : " + cache.getEvictionCount());
     }
 }